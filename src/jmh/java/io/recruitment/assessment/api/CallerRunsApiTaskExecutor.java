@@ -0,0 +1,26 @@
+package io.recruitment.assessment.api;
+
+import io.recruitment.assessment.api.config.ApiExecutorProperties;
+import io.recruitment.assessment.api.config.ApiTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs the delegate tasks on the benchmark thread, so the measurements leave out the hand-off to the worker pool.
+ */
+public class CallerRunsApiTaskExecutor extends ApiTaskExecutor {
+
+    public CallerRunsApiTaskExecutor() {
+        super(new ApiExecutorProperties());
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        try {
+            return CompletableFuture.completedFuture(supplier.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.recruitment.assessment.api;
+
+import io.recruitment.assessment.api.dvo.OrderDetails;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.repository.IdempotencyRepository;
+import io.recruitment.assessment.api.repository.OrderRepository;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Stand-ins for the JPA repositories, backed by plain collections, so the benchmarks measure the service code
+ * and not the database. Only the methods used on the benchmarked paths are supported.
+ */
+public final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    public static ProductRepository products(List<Products> catalogue) {
+        TreeMap<Long, Products> productsById = new TreeMap<>();
+        catalogue.forEach(products -> productsById.put(products.getId(), products));
+        return proxy(ProductRepository.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "findById":
+                    return Optional.ofNullable(productsById.get((Long) args[0]));
+                case "existsById":
+                    return productsById.containsKey((Long) args[0]);
+                case "findAllById":
+                    List<Products> found = new ArrayList<>();
+                    ((Iterable<?>) args[0]).forEach(id -> {
+                        Products products = productsById.get((Long) id);
+                        if (products != null) {
+                            found.add(products);
+                        }
+                    });
+                    return found;
+                case "findAllBy":
+                    return page(productsById.values(), (Pageable) args[0]);
+                case "findByIdGreaterThan":
+                    return page(productsById.tailMap((Long) args[0], false).values(), (Pageable) args[1]);
+                default:
+                    return unsupported(proxy, method.getName(), args);
+            }
+        });
+    }
+
+    /**
+     * Every lookup gets a new order from the factory, as the cart updates change the order they are given.
+     */
+    public static OrderRepository orders(Supplier<OrderDetails> orderFactory) {
+        return proxy(OrderRepository.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "findWithItemsById":
+                case "findForUpdateById":
+                    return Optional.of(orderFactory.get());
+                case "save":
+                    return args[0];
+                default:
+                    return unsupported(proxy, method.getName(), args);
+            }
+        });
+    }
+
+    /**
+     * Accepts every key as new and drops the stored responses.
+     */
+    public static IdempotencyRepository idempotency() {
+        return proxy(IdempotencyRepository.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "insertIfAbsent":
+                case "storeResponse":
+                case "deleteKey":
+                    return 1;
+                default:
+                    return unsupported(proxy, method.getName(), args);
+            }
+        });
+    }
+
+    /**
+     * Runs the transaction callbacks without any transaction.
+     */
+    public static PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    /* Skips to the page like the database would, with one more product read to tell whether there is a next page. */
+    private static SliceImpl<Products> page(Collection<Products> products, Pageable pageable) {
+        List<Products> content = products.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1L)
+                .collect(Collectors.toList());
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    private static Object unsupported(Object proxy, String methodName, Object[] args) {
+        switch (methodName) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryRepository@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                throw new UnsupportedOperationException(methodName + " is not supported by the in-memory repository.");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> repositoryType, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType}, handler);
+    }
+}
@@ -0,0 +1,98 @@
+package io.recruitment.assessment.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.recruitment.assessment.gen.model.AddProductRequest;
+import io.recruitment.assessment.gen.model.AddProductsBatchRequest;
+import io.recruitment.assessment.gen.model.ProductCatalogueResponseData;
+import io.recruitment.assessment.gen.model.ProductItemData;
+import io.recruitment.assessment.gen.model.ShoppingCartData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the generated models, with the object mapper configured as Spring Boot does for the APIs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    /* Items of the cart and of the batch, and products of the catalogue page. */
+    @Param({"1", "10", "100"})
+    private int size;
+
+    private ObjectWriter cartWriter;
+
+    private ObjectWriter pageWriter;
+
+    private ObjectReader batchReader;
+
+    private ShoppingCartData cart;
+
+    private List<ProductCatalogueResponseData> page;
+
+    private byte[] batchJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        cartWriter = objectMapper.writerFor(ShoppingCartData.class);
+        pageWriter = objectMapper.writerFor(new TypeReference<List<ProductCatalogueResponseData>>() {
+        });
+        batchReader = objectMapper.readerFor(AddProductsBatchRequest.class);
+
+        cart = new ShoppingCartData().orderId("benchmark-order").items(new ArrayList<>()).totalPrice("0.00")
+                .createdDate(OffsetDateTime.of(2021, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC));
+        page = new ArrayList<>();
+        AddProductsBatchRequest batch = new AddProductsBatchRequest().items(new ArrayList<>());
+        for (long productId = 1; productId <= size; productId++) {
+            cart.getItems().add(new ProductItemData().productId(productId).name("Product " + productId)
+                    .price(productId + ".99").count(3L).totalItemPrice((productId * 3) + ".97"));
+            page.add(new ProductCatalogueResponseData().productId(productId).name("Product " + productId)
+                    .description("Description of product " + productId).price(productId + ".99"));
+            batch.getItems().add(new AddProductRequest().productId(productId).count(3L));
+        }
+        batchJson = objectMapper.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public byte[] writeShoppingCart() throws IOException {
+        return cartWriter.writeValueAsBytes(cart);
+    }
+
+    @Benchmark
+    public byte[] writeCataloguePage() throws IOException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public AddProductsBatchRequest readBatchRequest() throws IOException {
+        return batchReader.readValue(batchJson);
+    }
+}
@@ -0,0 +1,137 @@
+package io.recruitment.assessment.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.recruitment.assessment.api.CallerRunsApiTaskExecutor;
+import io.recruitment.assessment.api.InMemoryRepositories;
+import io.recruitment.assessment.api.cache.OrderSummaryCache;
+import io.recruitment.assessment.api.cache.ProductCatalogueCache;
+import io.recruitment.assessment.api.cart.JpaCartStore;
+import io.recruitment.assessment.api.config.IdempotencyProperties;
+import io.recruitment.assessment.api.config.InventoryProperties;
+import io.recruitment.assessment.api.config.OrderProperties;
+import io.recruitment.assessment.api.config.OrderSummaryCacheProperties;
+import io.recruitment.assessment.api.config.ProductCacheProperties;
+import io.recruitment.assessment.api.dvo.OrderDetails;
+import io.recruitment.assessment.api.dvo.ProductItem;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.inventory.InventoryReservations;
+import io.recruitment.assessment.api.repository.OrderRepository;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.api.validator.OrderBusinessValidator;
+import io.recruitment.assessment.gen.model.AddProductRequest;
+import io.recruitment.assessment.gen.model.AddProductsBatchRequest;
+import io.recruitment.assessment.gen.model.ShoppingCartData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cart updates and order summaries of {@link OrderManagementServiceImpl} by cart size, the repositories being in memory.
+ * The order API accepts at most 100 products per batch, hence the largest cart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderTotalsBenchmark {
+
+    private static final String ORDER_ID = "benchmark-order";
+
+    @Param({"1", "10", "100"})
+    private int cartSize;
+
+    private final AtomicLong idempotencyKeys = new AtomicLong();
+
+    private OrderSummaryCache orderSummaryCache;
+
+    private OrderDetails filledOrder;
+
+    private AddProductsBatchRequest batchRequest;
+
+    private OrderManagementServiceImpl summaryService;
+
+    private OrderManagementServiceImpl cartService;
+
+    @Setup
+    public void setUp() {
+        List<Products> catalogue = new ArrayList<>();
+        List<ProductItem> items = new ArrayList<>();
+        batchRequest = new AddProductsBatchRequest().items(new ArrayList<>());
+        for (long productId = 1; productId <= cartSize; productId++) {
+            Products products = Products.builder().id(productId).name("Product " + productId)
+                    .description("Description of product " + productId).price(productId + ".99").build();
+            catalogue.add(products);
+            items.add(ProductItem.builder().id(productId).productId(productId).name(products.getName())
+                    .price(new BigDecimal(products.getPrice())).count(3L).version(0L).build());
+            batchRequest.getItems().add(new AddProductRequest().productId(productId).count(3L));
+        }
+        filledOrder = order(items);
+
+        ProductRepository productRepository = InMemoryRepositories.products(catalogue);
+        orderSummaryCache = new OrderSummaryCache(new OrderSummaryCacheProperties());
+        summaryService = service(InMemoryRepositories.orders(() -> filledOrder), productRepository);
+        cartService = service(InMemoryRepositories.orders(() -> order(new ArrayList<>())), productRepository);
+    }
+
+    /**
+     * Summary of an order saved before the totals were persisted, so the line totals and the total are computed.
+     */
+    @Benchmark
+    public ShoppingCartData summaryWithComputedTotals() {
+        filledOrder.setTotalPrice(null);
+        orderSummaryCache.invalidate(ORDER_ID);
+        return summaryService.ordersApiV1SummaryOrderIdGet(ORDER_ID, null).join().getBody();
+    }
+
+    /**
+     * Fills an empty cart with one batch, including the idempotency handling which stores the compressed response.
+     */
+    @Benchmark
+    public ShoppingCartData addBatchToEmptyCart() {
+        return cartService.ordersApiV1AddBatchOrderIdPut("key-" + idempotencyKeys.incrementAndGet(), ORDER_ID, batchRequest)
+                .join().getBody();
+    }
+
+    private OrderManagementServiceImpl service(OrderRepository orderRepository, ProductRepository productRepository) {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        PlatformTransactionManager transactionManager = InMemoryRepositories.transactionManager();
+        return new OrderManagementServiceImpl(
+                new ProductCatalogueCache(productRepository, new ProductCacheProperties()),
+                orderSummaryCache, new OrderBusinessValidator(),
+                new IdempotencyService(InMemoryRepositories.idempotency(), new IdempotencyProperties(), objectMapper),
+                new CallerRunsApiTaskExecutor(), new InventoryReservations(productRepository, new InventoryProperties(), new SimpleMeterRegistry()),
+                new JpaCartStore(orderRepository, new TransactionTemplate(transactionManager), new OrderProperties()));
+    }
+
+    private static OrderDetails order(List<ProductItem> items) {
+        return OrderDetails.builder()
+                .id(ORDER_ID)
+                .createDate(Timestamp.valueOf(LocalDateTime.of(2021, 1, 1, 10, 0)))
+                .productItems(items)
+                .totalPrice(items.isEmpty() ? BigDecimal.ZERO : null)
+                .version(0L)
+                .build();
+    }
+}
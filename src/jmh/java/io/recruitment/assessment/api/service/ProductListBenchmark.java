@@ -0,0 +1,95 @@
+package io.recruitment.assessment.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.recruitment.assessment.api.CallerRunsApiTaskExecutor;
+import io.recruitment.assessment.api.InMemoryRepositories;
+import io.recruitment.assessment.api.cache.ProductCatalogueCache;
+import io.recruitment.assessment.api.config.IdempotencyProperties;
+import io.recruitment.assessment.api.config.InventoryProperties;
+import io.recruitment.assessment.api.config.ProductCacheProperties;
+import io.recruitment.assessment.api.config.ProductSearchProperties;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.inventory.InventoryReservations;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.api.search.ProductSearchIndex;
+import io.recruitment.assessment.api.validator.ProductsBusinessValidator;
+import io.recruitment.assessment.gen.model.ProductCatalogueResponseData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mapping of the catalogue to {@link ProductCatalogueResponseData} by page size, on its own and through the listing
+ * of {@link ProductsManagementServiceImpl} with the page cache disabled, so every call maps the page again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductListBenchmark {
+
+    private static final int CATALOGUE_SIZE = 10_000;
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private List<Products> page;
+
+    private ProductsManagementServiceImpl productsService;
+
+    @Setup
+    public void setUp() {
+        List<Products> catalogue = new ArrayList<>(CATALOGUE_SIZE);
+        for (long productId = 1; productId <= CATALOGUE_SIZE; productId++) {
+            catalogue.add(Products.builder().id(productId).name("Product " + productId)
+                    .description("Description of product " + productId).price(productId + ".99").build());
+        }
+        page = new ArrayList<>(catalogue.subList(0, pageSize));
+
+        ProductRepository productRepository = InMemoryRepositories.products(catalogue);
+        ProductCacheProperties cacheProperties = new ProductCacheProperties();
+        cacheProperties.setMaxPages(0);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        productsService = new ProductsManagementServiceImpl(productRepository,
+                new ProductsBusinessValidator(productRepository),
+                new ProductCatalogueCache(productRepository, cacheProperties),
+                new ProductSearchIndex(productRepository, new ProductSearchProperties()),
+                new IdempotencyService(InMemoryRepositories.idempotency(), new IdempotencyProperties(), objectMapper),
+                new CallerRunsApiTaskExecutor(),
+                new InventoryReservations(productRepository, new InventoryProperties(), new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public List<ProductCatalogueResponseData> mapPage() {
+        return page.stream()
+                .map(ProductsManagementServiceImpl::toProductCatalogueResponseData)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ProductCatalogueResponseData> listFirstPage() {
+        return productsService.productsApiV1ListGet(null, 0L, (long) pageSize, null, null).join().getBody();
+    }
+
+    @Benchmark
+    public List<ProductCatalogueResponseData> listAfterCursor() {
+        return productsService.productsApiV1ListGet(null, null, (long) pageSize, null, CATALOGUE_SIZE / 2L).join().getBody();
+    }
+}
@@ -0,0 +1,115 @@
+package io.recruitment.assessment.api.validator;
+
+import io.recruitment.assessment.api.InMemoryRepositories;
+import io.recruitment.assessment.api.dvo.OrderDetails;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.gen.model.AddProductRequest;
+import io.recruitment.assessment.gen.model.AddProductsBatchRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The business validators and the bean validation of the generated request models, on valid requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int batchSize;
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private OrderBusinessValidator orderValidator;
+
+    private ProductsBusinessValidator productsValidator;
+
+    private OrderDetails orderDetails;
+
+    private Products products;
+
+    private Map<Long, Products> productsById;
+
+    private AddProductRequest addProductRequest;
+
+    private AddProductsBatchRequest batchRequest;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        orderValidator = new OrderBusinessValidator();
+
+        List<Products> catalogue = new ArrayList<>();
+        productsById = new HashMap<>();
+        batchRequest = new AddProductsBatchRequest().items(new ArrayList<>());
+        for (long productId = 1; productId <= batchSize; productId++) {
+            Products catalogueProduct = Products.builder().id(productId).name("Product " + productId)
+                    .description("Description of product " + productId).price(productId + ".99").build();
+            catalogue.add(catalogueProduct);
+            productsById.put(productId, catalogueProduct);
+            batchRequest.getItems().add(new AddProductRequest().productId(productId).count(3L));
+        }
+        productsValidator = new ProductsBusinessValidator(InMemoryRepositories.products(catalogue));
+        orderDetails = OrderDetails.builder().id("benchmark-order").productItems(new ArrayList<>()).build();
+        products = catalogue.get(0);
+        addProductRequest = batchRequest.getItems().get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public void validateAddProduct() {
+        orderValidator.validateOrderAddProductRequest(orderDetails, products, addProductRequest);
+    }
+
+    @Benchmark
+    public void validateAddProductsBatch() {
+        orderValidator.validateOrderAddProductsBatchRequest(orderDetails, productsById, batchRequest);
+    }
+
+    @Benchmark
+    public void validateProductList() {
+        productsValidator.validateGetProductLiseRequest(0L, 10L, ProductsBusinessValidator.SORT_BY_ID, null);
+    }
+
+    @Benchmark
+    public void validateProductUpdate() {
+        productsValidator.validateProductUpdateRequest(products.getId());
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<AddProductsBatchRequest>> beanValidateBatchRequest() {
+        return validator.validate(batchRequest);
+    }
+}
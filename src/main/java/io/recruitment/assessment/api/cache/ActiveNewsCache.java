@@ -0,0 +1,173 @@
+package io.recruitment.assessment.api.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.recruitment.assessment.api.config.NewsCacheProperties;
+import io.recruitment.assessment.api.dvo.News;
+import io.recruitment.assessment.api.repository.NewsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Holds the news which have not expired yet, serving the news list without touching the database.
+ * The news are kept by id for the listing, and by expiry date so the expired ones are dropped from the head
+ * of the expiry order as soon as a read or a write happens after their expiry. A read never returns an expired
+ * news, even one not dropped yet.
+ * <p>
+ * The cache is loaded from the {@link NewsRepository} once the application is ready, kept up to date by the
+ * add news API, and refreshed periodically for the news added through other instances.
+ */
+@Slf4j
+@Component
+public class ActiveNewsCache implements MeterBinder {
+
+    private final NewsRepository newsRepository;
+
+    private final NewsCacheProperties properties;
+
+    private final ConcurrentSkipListMap<Long, News> activeById = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentSkipListSet<Expiry> expiryOrder = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Expiry::getExpiresAt).thenComparingLong(Expiry::getId));
+
+    private volatile boolean ready = false;
+
+    public ActiveNewsCache(NewsRepository newsRepository, NewsCacheProperties properties) {
+        this.newsRepository = newsRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * @return true when the news list can be served by the cache.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!properties.isEnabled()) {
+            log.info("Active news cache is disabled, the news list is served by the database.");
+            return;
+        }
+        refresh();
+        ready = true;
+    }
+
+    @Scheduled(initialDelayString = "${news.cache.refresh-interval:PT1M}",
+            fixedDelayString = "${news.cache.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<News> active = newsRepository.findByExpiryDateAfter(new Timestamp(start));
+        /* News cannot be updated or deleted through the APIs, merging keeps the news added during the query. */
+        active.forEach(this::newsAdded);
+        evictExpired(System.currentTimeMillis());
+        log.info("Active news cache refreshed with {} news in {}ms", activeById.size(), System.currentTimeMillis() - start);
+    }
+
+    public synchronized void newsAdded(News news) {
+        long expiresAt = news.getExpiryDate().getTime();
+        if (expiresAt <= System.currentTimeMillis() || activeById.putIfAbsent(news.getId(), news) != null) {
+            return;
+        }
+        expiryOrder.add(new Expiry(expiresAt, news.getId()));
+    }
+
+    /**
+     * Returns one page of the active news, in id order.
+     */
+    public Slice<News> getPage(int pageNo, int pageSize) {
+        if (pageSize == 0) {
+            return new SliceImpl<>(Collections.emptyList());
+        }
+        return page(activeById, (long) pageNo * pageSize, PageRequest.of(pageNo, pageSize, Sort.by("id")));
+    }
+
+    /**
+     * Returns the active news with an id greater than afterId, in id order.
+     */
+    public Slice<News> getPageAfter(long afterId, int pageSize) {
+        return page(activeById.tailMap(afterId, false), 0, PageRequest.of(0, pageSize, Sort.by("id")));
+    }
+
+    private Slice<News> page(NavigableMap<Long, News> news, long offset, PageRequest pageRequest) {
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+        /* One news more than requested tells whether there is a next page. */
+        List<News> page = new ArrayList<>(pageRequest.getPageSize() + 1);
+        long skipped = 0;
+        for (News item : news.values()) {
+            if (item.getExpiryDate().getTime() <= now) {
+                continue;
+            }
+            if (skipped++ < offset) {
+                continue;
+            }
+            if (page.size() == pageRequest.getPageSize() + 1) {
+                break;
+            }
+            page.add(item);
+        }
+        boolean hasNext = page.size() > pageRequest.getPageSize();
+        return new SliceImpl<>(hasNext ? page.subList(0, pageRequest.getPageSize()) : page, pageRequest, hasNext);
+    }
+
+    private void evictExpired(long now) {
+        Expiry oldest;
+        /* The ceiling of the smallest possible entry is the first entry, or null once the set is empty. */
+        while ((oldest = expiryOrder.ceiling(Expiry.FIRST)) != null && oldest.expiresAt <= now) {
+            synchronized (this) {
+                if (expiryOrder.remove(oldest)) {
+                    activeById.remove(oldest.id);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("news.active", activeById, NavigableMap::size)
+                .description("News not expired yet, held by the active news cache")
+                .register(registry);
+    }
+
+    private static final class Expiry {
+        private static final Expiry FIRST = new Expiry(Long.MIN_VALUE, Long.MIN_VALUE);
+
+        private final long expiresAt;
+        private final long id;
+
+        private Expiry(long expiresAt, long id) {
+            this.expiresAt = expiresAt;
+            this.id = id;
+        }
+
+        private long getExpiresAt() {
+            return expiresAt;
+        }
+
+        private long getId() {
+            return id;
+        }
+    }
+}
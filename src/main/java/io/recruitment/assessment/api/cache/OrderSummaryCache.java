@@ -0,0 +1,91 @@
+package io.recruitment.assessment.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.recruitment.assessment.api.config.OrderSummaryCacheProperties;
+import io.recruitment.assessment.gen.model.ShoppingCartData;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Order summaries by orderId, each one tagged with the version of the order it has been built from.
+ * The cart updates replace the summary of the order once they are committed.
+ */
+@Component
+public class OrderSummaryCache implements MeterBinder {
+
+    private final Cache<String, OrderSummary> summaries;
+
+    public OrderSummaryCache(OrderSummaryCacheProperties properties) {
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxOrders())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the cached summary of the order, null when it is not cached.
+     */
+    public OrderSummary get(String orderId) {
+        return summaries.getIfPresent(orderId);
+    }
+
+    /**
+     * Caches the summary unless a summary of a later version of the order is cached already.
+     *
+     * @return the summary cached for the order after the call.
+     */
+    public OrderSummary put(String orderId, Long version, ShoppingCartData data) {
+        OrderSummary summary = new OrderSummary(version, data);
+        if (version == null) {
+            return summary;
+        }
+        /* Concurrent updates of one cart can commit in one order and get here in the other. */
+        return summaries.asMap().merge(orderId, summary,
+                (cached, updated) -> cached.getVersion() > updated.getVersion() ? cached : updated);
+    }
+
+    public void invalidate(String orderId) {
+        summaries.invalidate(orderId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, summaries, "orders.summaries");
+    }
+
+    @Value
+    public static class OrderSummary {
+        Long version;
+        ShoppingCartData data;
+
+        /**
+         * @return the strong entity tag of the summary, null when the order version is unknown.
+         */
+        public String getETag() {
+            return version == null ? null : "\"" + version + "\"";
+        }
+
+        /**
+         * @return true when the If-None-Match header holds the entity tag of the summary.
+         */
+        public boolean matches(String ifNoneMatch) {
+            String eTag = getETag();
+            if (ifNoneMatch == null || eTag == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                candidate = candidate.trim();
+                /* If-None-Match uses the weak comparison, a weak validator matches its strong counterpart. */
+                if (candidate.equals("*") || candidate.equals(eTag) || candidate.equals("W/" + eTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.recruitment.assessment.api.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.recruitment.assessment.api.config.ProductCacheProperties;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.gen.model.ProductCatalogueResponseData;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of the {@link ProductRepository} for the catalogue listing and the product lookups.
+ * The catalogue only changes through the admin APIs, which have to report every change here.
+ * <p>
+ * A page is loaded asynchronously, and the requests of a page being loaded wait for the same load without holding a
+ * thread.
+ */
+@Slf4j
+@Component
+public class ProductCatalogueCache implements MeterBinder {
+
+    private final ProductRepository productRepository;
+
+    private final AsyncCache<PageKey, List<ProductCatalogueResponseData>> pageCache;
+
+    private final Cache<Long, Products> productCache;
+
+    public ProductCatalogueCache(ProductRepository productRepository, ProductCacheProperties properties) {
+        this.productRepository = productRepository;
+        this.pageCache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxPages())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .buildAsync();
+        this.productCache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxProducts())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached catalogue page, loading it only when it is neither cached nor being loaded yet. A failed load
+     * is not cached.
+     */
+    public CompletableFuture<List<ProductCatalogueResponseData>> getPage(String searchParam, int pageNo, int pageSize,
+                                                                         Supplier<CompletableFuture<List<ProductCatalogueResponseData>>> pageLoader) {
+        PageKey key = new PageKey(StringUtils.isBlank(searchParam) ? "" : searchParam, pageNo, pageSize);
+        return pageCache.get(key, (pageKey, executor) -> pageLoader.get().thenApply(Collections::unmodifiableList));
+    }
+
+    public Optional<Products> getProduct(Long productId) {
+        return Optional.ofNullable(productCache.get(productId, id -> productRepository.findById(id).orElse(null)));
+    }
+
+    /**
+     * Returns the products found by id, the ones not cached yet are loaded with a single query.
+     */
+    public Map<Long, Products> getProducts(Collection<Long> productIds) {
+        return productCache.getAll(productIds, this::loadProducts);
+    }
+
+    public void productAdded(Products products) {
+        productCache.put(products.getId(), products);
+        /* The new product can show up on any page of any search. */
+        pageCache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Bulk imports only drop the pages, caching every imported product would evict the products actually read.
+     */
+    public void productsImported() {
+        pageCache.synchronous().invalidateAll();
+    }
+
+    public void productUpdated(Products products) {
+        productCache.put(products.getId(), products);
+        /*
+         * The ordering by id is unchanged, only the pages showing the product and the searches are stale, along with
+         * the pages still being loaded, which may have been read before the update.
+         */
+        pageCache.asMap().entrySet().removeIf(page -> !page.getKey().getSearchParam().isEmpty()
+                || !page.getValue().isDone() || page.getValue().isCompletedExceptionally()
+                || page.getValue().join().stream().anyMatch(data -> products.getId().equals(data.getProductId())));
+    }
+
+    public void productDeleted(Long productId) {
+        productCache.invalidate(productId);
+        /* Every page after the deleted product is shifted by one. */
+        pageCache.synchronous().invalidateAll();
+    }
+
+    private Map<Long, Products> loadProducts(Iterable<? extends Long> productIds) {
+        List<Long> ids = new ArrayList<>();
+        productIds.forEach(ids::add);
+        Map<Long, Products> products = new HashMap<>();
+        productRepository.findAllById(ids).forEach(product -> products.put(product.getId(), product));
+        return products;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, pageCache.synchronous(), "products.pages");
+        CaffeineCacheMetrics.monitor(registry, productCache, "products.byId");
+    }
+
+    @Value
+    private static class PageKey {
+        String searchParam;
+        int pageNo;
+        int pageSize;
+    }
+}
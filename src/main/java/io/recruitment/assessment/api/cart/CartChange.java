@@ -0,0 +1,27 @@
+package io.recruitment.assessment.api.cart;
+
+import io.recruitment.assessment.api.dvo.ProductItem;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * One event of a cart as journaled: its creation, or an update with the state of the items it changed, and the
+ * totals and version of the cart after it. Replaying an event twice leaves the cart as replaying it once.
+ */
+@Value
+public class CartChange {
+    Type type;
+    String orderId;
+    Long version;
+    /* The creation date for a created cart. */
+    Timestamp updateDate;
+    BigDecimal totalPrice;
+    List<ProductItem> items;
+
+    public enum Type {
+        CREATED, ITEMS_CHANGED
+    }
+}
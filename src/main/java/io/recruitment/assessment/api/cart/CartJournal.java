@@ -0,0 +1,261 @@
+package io.recruitment.assessment.api.cart;
+
+import io.recruitment.assessment.api.dvo.ProductItem;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the cart events, split in numbered segments of a fixed size, each one memory mapped while
+ * it is written. An append is a copy into the mapped segment, it survives a crash of the process as soon as it is
+ * done; the segment is forced to the disk on {@link #force()} and when it is closed. A segment is closed when the next
+ * event does not fit in it, or on {@link #rotate()}, and the closed segments are deleted once a snapshot holds them.
+ * <p>
+ * Every event is a record made of its length, its CRC32 and the event itself. The length is written last, and the
+ * unwritten end of a segment reads as zeros, so a replay stops at the first record not fully written, and a record
+ * torn by a crash of the host is told apart from the next ones by its checksum.
+ */
+@Slf4j
+class CartJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "cart-journal-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final List<Path> closedSegments;
+
+    private long sequence;
+
+    private Path segment;
+
+    private FileChannel channel;
+
+    private MappedByteBuffer buffer;
+
+    CartJournal(Path directory, int segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        try (Stream<Path> files = Files.list(directory)) {
+            this.closedSegments = files
+                    .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+        if (!closedSegments.isEmpty()) {
+            sequence = sequenceOf(closedSegments.get(closedSegments.size() - 1));
+        }
+        openNextSegment();
+    }
+
+    synchronized void append(CartChange change) {
+        byte[] record = encode(change);
+        if (HEADER_BYTES + record.length + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("The event of orderId=" + change.getOrderId() + " exceeds the journal segment size");
+        }
+        try {
+            /* A segment always ends with room for a zero length, the end marker of a full segment. */
+            if (buffer.remaining() < HEADER_BYTES + record.length + Integer.BYTES) {
+                rotate();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open the next cart journal segment", e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        int start = buffer.position();
+        buffer.position(start + Integer.BYTES);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(record);
+        buffer.putInt(start, record.length);
+    }
+
+    /**
+     * Forces the events appended so far to the disk.
+     */
+    synchronized void force() {
+        buffer.force();
+    }
+
+    /**
+     * Closes the current segment, unless it is empty, and starts a new one.
+     *
+     * @return the sequence of the last closed segment, every event appended before the call is in the segments up to it.
+     */
+    synchronized long rotate() throws IOException {
+        if (buffer.position() > 0) {
+            closeSegment();
+            closedSegments.add(segment);
+            openNextSegment();
+        }
+        return sequence - 1;
+    }
+
+    /**
+     * Deletes the closed segments up to the sequence, once a snapshot holds their events.
+     */
+    synchronized void deleteSegmentsUpTo(long lastSequence) throws IOException {
+        for (Iterator<Path> closed = closedSegments.iterator(); closed.hasNext(); ) {
+            Path closedSegment = closed.next();
+            if (sequenceOf(closedSegment) <= lastSequence) {
+                Files.deleteIfExists(closedSegment);
+                closed.remove();
+            }
+        }
+    }
+
+    /**
+     * Reads the events of the closed segments after the sequence, oldest first.
+     */
+    synchronized void replay(long afterSequence, Consumer<CartChange> consumer) throws IOException {
+        for (Path closed : closedSegments) {
+            if (sequenceOf(closed) <= afterSequence) {
+                continue;
+            }
+            int replayed = 0;
+            try (FileChannel closedChannel = FileChannel.open(closed, StandardOpenOption.READ)) {
+                ByteBuffer records = closedChannel.map(FileChannel.MapMode.READ_ONLY, 0, closedChannel.size());
+                while (records.remaining() >= HEADER_BYTES) {
+                    int length = records.getInt();
+                    int checksum = records.getInt();
+                    if (length <= 0 || length > records.remaining()) {
+                        break;
+                    }
+                    byte[] record = new byte[length];
+                    records.get(record);
+                    CRC32 crc = new CRC32();
+                    crc.update(record);
+                    if ((int) crc.getValue() != checksum) {
+                        log.warn("Ignoring the torn end of the cart journal {} after {} events", closed, replayed);
+                        break;
+                    }
+                    consumer.accept(decode(record));
+                    replayed++;
+                }
+            }
+            log.info("Replayed {} cart events from {}", replayed, closed);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        boolean empty = buffer.position() == 0;
+        closeSegment();
+        /* An empty segment holds nothing to replay. */
+        if (empty) {
+            Files.delete(segment);
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        sequence++;
+        segment = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    /* The mapping itself is released once the buffer is collected. */
+    private void closeSegment() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(CartChange change) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(change.getType().ordinal());
+            out.writeUTF(change.getOrderId());
+            out.writeLong(change.getVersion());
+            out.writeLong(change.getUpdateDate().getTime());
+            writeDecimal(out, change.getTotalPrice());
+            out.writeInt(change.getItems().size());
+            for (ProductItem item : change.getItems()) {
+                writeItem(out, item);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CartChange decode(byte[] record) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            CartChange.Type type = CartChange.Type.values()[in.readByte()];
+            String orderId = in.readUTF();
+            long version = in.readLong();
+            Timestamp updateDate = new Timestamp(in.readLong());
+            BigDecimal totalPrice = readDecimal(in);
+            int size = in.readInt();
+            List<ProductItem> items = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                items.add(readItem(in));
+            }
+            return new CartChange(type, orderId, version, updateDate, totalPrice, items);
+        } catch (EOFException e) {
+            throw new IOException("Truncated cart journal record", e);
+        }
+    }
+
+    static void writeItem(DataOutputStream out, ProductItem item) throws IOException {
+        out.writeLong(item.getProductId());
+        out.writeUTF(item.getName());
+        out.writeUTF(item.getPrice().toPlainString());
+        out.writeLong(item.getCount());
+        out.writeLong(item.getReservedCount() == null ? 0 : item.getReservedCount());
+        /* The items saved before the totals were persisted have none until their cart is updated. */
+        writeDecimal(out, item.getLineTotal());
+    }
+
+    static ProductItem readItem(DataInputStream in) throws IOException {
+        return ProductItem.builder()
+                .productId(in.readLong())
+                .name(in.readUTF())
+                .price(new BigDecimal(in.readUTF()))
+                .count(in.readLong())
+                .reservedCount(in.readLong())
+                .lineTotal(readDecimal(in))
+                .build();
+    }
+
+    /* A null decimal is written empty. */
+    static void writeDecimal(DataOutputStream out, BigDecimal decimal) throws IOException {
+        out.writeUTF(decimal == null ? "" : decimal.toPlainString());
+    }
+
+    static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        String decimal = in.readUTF();
+        return decimal.isEmpty() ? null : new BigDecimal(decimal);
+    }
+}
@@ -0,0 +1,168 @@
+package io.recruitment.assessment.api.cart;
+
+import io.recruitment.assessment.api.dvo.OrderDetails;
+import io.recruitment.assessment.api.dvo.ProductItem;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshots of all the carts held in memory, each one replacing the journal up to the segment it was taken after.
+ * A snapshot is written to a temporary file, forced to the disk, then moved in place and the directory forced, so a
+ * crash while writing it leaves the previous snapshot and the journal untouched, and nothing it replaces is deleted
+ * before the move is durable. Its CRC32 is checked on read.
+ */
+@Slf4j
+class CartSnapshots {
+
+    private static final String SNAPSHOT_PREFIX = "cart-snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private static final int MAGIC = 0x43415254;
+
+    private final Path directory;
+
+    CartSnapshots(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Writes the snapshot of the carts, holding the journal up to the sequence, and deletes the previous snapshots.
+     */
+    void write(long journalSequence, Collection<SnapshotCart> carts) throws IOException {
+        Path snapshot = directory.resolve(String.format("%s%019d%s", SNAPSHOT_PREFIX, journalSequence, SNAPSHOT_SUFFIX));
+        Path temporary = directory.resolve(snapshot.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file), crc))) {
+            out.writeInt(MAGIC);
+            out.writeLong(journalSequence);
+            out.writeInt(carts.size());
+            for (SnapshotCart snapshotCart : carts) {
+                OrderDetails cart = snapshotCart.getCart();
+                out.writeUTF(cart.getId());
+                out.writeLong(cart.getCreateDate().getTime());
+                out.writeLong(cart.getUpdateDate() == null ? -1 : cart.getUpdateDate().getTime());
+                CartJournal.writeDecimal(out, cart.getTotalPrice());
+                out.writeLong(cart.getVersion());
+                out.writeLong(snapshotCart.getFlushedVersion());
+                out.writeInt(cart.getProductItems().size());
+                for (ProductItem item : cart.getProductItems()) {
+                    CartJournal.writeItem(out, item);
+                }
+            }
+            out.flush();
+            /* Outside of the checksum it covers. */
+            new DataOutputStream(file).writeLong(crc.getValue());
+            file.getChannel().force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        /* The rename is only durable once the directory is, a crash of the host could lose it but keep the deletions. */
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+
+        for (Path previous : snapshotFiles()) {
+            if (!previous.equals(snapshot)) {
+                Files.delete(previous);
+            }
+        }
+        log.info("Wrote the snapshot of {} carts to {}", carts.size(), snapshot);
+    }
+
+    /**
+     * @return the latest snapshot, null when there is none.
+     * @throws IOException when it cannot be read, the carts it holds are in no journal anymore.
+     */
+    Snapshot readLatest() throws IOException {
+        List<Path> snapshots = snapshotFiles();
+        if (snapshots.isEmpty()) {
+            return null;
+        }
+        Path snapshot = snapshots.get(snapshots.size() - 1);
+        CRC32 crc = new CRC32();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(snapshot));
+             DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a cart snapshot: " + snapshot);
+            }
+            long journalSequence = in.readLong();
+            int size = in.readInt();
+            List<SnapshotCart> carts = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String orderId = in.readUTF();
+                Timestamp createDate = new Timestamp(in.readLong());
+                long updateDate = in.readLong();
+                BigDecimal totalPrice = CartJournal.readDecimal(in);
+                long version = in.readLong();
+                long flushedVersion = in.readLong();
+                int itemCount = in.readInt();
+                List<ProductItem> items = new ArrayList<>(itemCount);
+                for (int j = 0; j < itemCount; j++) {
+                    items.add(CartJournal.readItem(in));
+                }
+                carts.add(new SnapshotCart(OrderDetails.builder()
+                        .id(orderId)
+                        .createDate(createDate)
+                        .updateDate(updateDate < 0 ? null : new Timestamp(updateDate))
+                        .totalPrice(totalPrice)
+                        .version(version)
+                        .productItems(items)
+                        .build(), flushedVersion));
+            }
+            long checksum = crc.getValue();
+            if (new DataInputStream(file).readLong() != checksum) {
+                throw new IOException("Corrupted cart snapshot: " + snapshot);
+            }
+            log.info("Read the snapshot of {} carts from {}", size, snapshot);
+            return new Snapshot(journalSequence, carts);
+        }
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(SNAPSHOT_PREFIX)
+                            && file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Value
+    static class SnapshotCart {
+        OrderDetails cart;
+        /* Version of the cart last written to the database, -1 for a cart never written. */
+        long flushedVersion;
+    }
+
+    @Value
+    static class Snapshot {
+        long journalSequence;
+        List<SnapshotCart> carts;
+    }
+}
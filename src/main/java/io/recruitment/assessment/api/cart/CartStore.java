@@ -0,0 +1,32 @@
+package io.recruitment.assessment.api.cart;
+
+import io.recruitment.assessment.api.dvo.OrderDetails;
+
+import java.util.function.Consumer;
+
+/**
+ * Where the carts are created, read and updated: the database itself, see {@link JpaCartStore}, or the carts held in
+ * memory and written to it behind, see {@link ShardedCartStore}, as chosen by orders.write-behind.enabled.
+ */
+public interface CartStore {
+
+    /**
+     * Stores the new cart.
+     *
+     * @return the cart as stored.
+     */
+    OrderDetails create(OrderDetails orderDetails);
+
+    /**
+     * @return the current state of the cart, null when the order does not exist.
+     */
+    OrderDetails get(String orderId);
+
+    /**
+     * Applies the change to the cart and stores it. The change gets null when the order does not exist, and is
+     * expected to reject it; a change which throws leaves the cart as it was.
+     *
+     * @return the updated cart, not to be changed any further.
+     */
+    OrderDetails update(String orderId, Consumer<OrderDetails> change);
+}
@@ -0,0 +1,85 @@
+package io.recruitment.assessment.api.cart;
+
+import io.recruitment.assessment.api.config.OrderProperties;
+import io.recruitment.assessment.api.dvo.OrderDetails;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * The carts stored in the database only, every call reading or writing them through {@link OrderRepository}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JpaCartStore implements CartStore {
+
+    private final OrderRepository orderRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final OrderProperties orderProperties;
+
+    @Override
+    public OrderDetails create(OrderDetails orderDetails) {
+        OrderDetails saved = orderRepository.save(orderDetails);
+        log.info("Saved data to database successfully.");
+        return saved;
+    }
+
+    @Override
+    public OrderDetails get(String orderId) {
+        return orderRepository.findWithItemsById(orderId).orElse(null);
+    }
+
+    /**
+     * Applies the change in its own transaction. When a concurrent update of the same cart commits first, the change
+     * is applied again on top of it, the order and its items being read again.
+     */
+    @Override
+    public OrderDetails update(String orderId, Consumer<OrderDetails> change) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    OrderDetails updated = orderRepository.findForUpdateById(orderId).orElse(null);
+                    log.info("Fetched order details.");
+                    change.accept(updated);
+                    updated.setUpdateDate(Timestamp.valueOf(OffsetDateTime.now().toLocalDateTime()));
+                    orderRepository.save(updated);
+                    log.info("Saved data to database successfully.");
+                    return updated;
+                });
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= orderProperties.getMaxUpdateAttempts()) {
+                    log.warn("Giving up the update of orderId={} after {} conflicting attempts.", orderId, attempt);
+                    throw concurrentUpdateException();
+                }
+                log.info("Concurrent update of orderId={} detected, retrying the update, attempt={}", orderId, attempt + 1);
+                pauseBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private void pauseBeforeRetry(int attempt) {
+        long backoff = orderProperties.getUpdateRetryBackoff().toMillis() << Math.min(attempt - 1, 10);
+        try {
+            /* Randomised, so the conflicting requests do not collide again on their next attempt. */
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw concurrentUpdateException();
+        }
+    }
+
+    private static CustomBusinessException concurrentUpdateException() {
+        return new CustomBusinessException(HttpStatus.CONFLICT, "ConcurrentModificationError", "The order is being updated by another request, kindly try again.");
+    }
+}
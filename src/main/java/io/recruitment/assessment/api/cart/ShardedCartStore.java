@@ -0,0 +1,866 @@
+package io.recruitment.assessment.api.cart;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.recruitment.assessment.api.cache.OrderSummaryCache;
+import io.recruitment.assessment.api.cart.CartSnapshots.Snapshot;
+import io.recruitment.assessment.api.cart.CartSnapshots.SnapshotCart;
+import io.recruitment.assessment.api.config.CartWriteBehindProperties;
+import io.recruitment.assessment.api.dvo.OrderDetails;
+import io.recruitment.assessment.api.dvo.ProductItem;
+import io.recruitment.assessment.api.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The carts in use held in memory and written to the database behind, enabled by orders.write-behind.enabled. They are
+ * the authoritative copy: a cart is created and updated in memory, journaled, and answered, and the carts changed
+ * meanwhile are written to the database every flush interval, or as soon as enough of them are waiting. The many
+ * updates of a hot cart between two writes cost a single write of the items they changed.
+ * <p>
+ * The carts are spread over shards by the hash of their order id, each one an LRU map guarded by a lock of its own held
+ * for the lookup only, so the requests of different carts do not contend. A shard holds max-carts / shards carts: past
+ * that, its least recently used carts already written are dropped, to be read back from the database when used again,
+ * and a flush is requested when the ones left are all waiting to be written.
+ * <p>
+ * An update works on a copy of the cart which replaces it once complete, so a failed update leaves the cart as it was
+ * and the readers never see a half updated cart. The updates of a cart are serialised on its buffer, its version is
+ * bumped on every update and written along with it, so the entity tags of the summaries keep their meaning once the
+ * cart is read back from the database.
+ * <p>
+ * Every snapshot interval, all the carts in memory are written to a snapshot which replaces the journal before it. On
+ * startup the carts of the latest snapshot are restored and the journal after it is replayed on top of them, skipping
+ * the events of the versions already applied. The carts changed since without being in the snapshot are rebuilt from
+ * their events alone, the items they changed, and merged with their stored state once used or written; the database is
+ * caught up in the background. The recovery reads a snapshot and the events of a snapshot interval at most, and not the
+ * database, so it does not depend on its state. A crash of the process loses no answered update, a crash of the host
+ * loses at most a flush interval of them.
+ * <p>
+ * The carts are written by a thread of their own, so they do not wait behind the scheduled jobs.
+ */
+@Slf4j
+public class ShardedCartStore implements CartStore {
+
+    private final OrderRepository orderRepository;
+
+    private final OrderSummaryCache orderSummaryCache;
+
+    private final CartWriteBehindProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /* Synchronizes the inventory reservations of an update with its outcome, without opening a database transaction. */
+    private final TransactionTemplate updateTemplate;
+
+    private final Shard[] shards;
+
+    private final int shardCapacity;
+
+    private final Set<String> dirtyOrderIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final Object flushLock = new Object();
+
+    private final Counter flushedCounter;
+
+    private final Timer flushTimer;
+
+    private final Timer snapshotTimer;
+
+    private CartJournal journal;
+
+    private CartSnapshots snapshots;
+
+    /* Sequence of the journal segment the latest snapshot was taken after. */
+    private long snapshotSequence;
+
+    private ScheduledExecutorService flusher;
+
+    /* Set on shutdown, the carts changed since are written by the last flush. */
+    private volatile boolean closed;
+
+    public ShardedCartStore(OrderRepository orderRepository, OrderSummaryCache orderSummaryCache,
+                            CartWriteBehindProperties properties, PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderSummaryCache = orderSummaryCache;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.updateTemplate = new TransactionTemplate(transactionManager);
+        this.updateTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_SUPPORTS);
+        this.shards = new Shard[properties.getShards()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardCapacity = Math.max(1, properties.getMaxCarts() / shards.length);
+        this.flushedCounter = meterRegistry.counter("orders.write-behind.flushed");
+        this.flushTimer = meterRegistry.timer("orders.write-behind.flush");
+        this.snapshotTimer = meterRegistry.timer("orders.write-behind.snapshot");
+        Gauge.builder("orders.write-behind.carts", this, ShardedCartStore::size)
+                .description("Carts held in memory").register(meterRegistry);
+        Gauge.builder("orders.write-behind.dirty", dirtyOrderIds, Set::size)
+                .description("Carts changed and not written to the database yet").register(meterRegistry);
+    }
+
+    /**
+     * Restores the carts of the latest snapshot and replays the journal after it, then starts writing the carts in
+     * the background.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        long start = System.nanoTime();
+        snapshots = new CartSnapshots(properties.getJournalDirectory());
+        journal = new CartJournal(properties.getJournalDirectory(), (int) properties.getJournalSegmentSize().toBytes());
+        Snapshot snapshot = snapshots.readLatest();
+        if (snapshot != null) {
+            snapshotSequence = snapshot.getJournalSequence();
+            for (SnapshotCart snapshotCart : snapshot.getCarts()) {
+                BufferedCart buffered = new BufferedCart(snapshotCart.getCart(), snapshotCart.getFlushedVersion());
+                shard(snapshotCart.getCart().getId()).putIfAbsent(snapshotCart.getCart().getId(), buffered);
+                if (buffered.isDirty()) {
+                    dirtyOrderIds.add(snapshotCart.getCart().getId());
+                }
+            }
+        }
+        journal.replay(snapshotSequence, this::replay);
+        log.info("Recovered {} carts, {} of them not written yet, in {} ms", size(), dirtyOrderIds.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        long snapshotInterval = properties.getSnapshotInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::snapshotQuietly, snapshotInterval, snapshotInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates the cart in memory, it is inserted in the database by a later flush.
+     */
+    @Override
+    public OrderDetails create(OrderDetails orderDetails) {
+        OrderDetails cart = copyOf(orderDetails);
+        cart.setVersion(0L);
+        BufferedCart buffered = new BufferedCart(cart, -1);
+        buffered.lock.lock();
+        try {
+            insert(cart.getId(), buffered);
+            dirtyOrderIds.add(cart.getId());
+            try {
+                journal.append(new CartChange(CartChange.Type.CREATED, cart.getId(), cart.getVersion(), cart.getCreateDate(),
+                        cart.getTotalPrice(), Collections.emptyList()));
+            } catch (RuntimeException e) {
+                buffered.evicted = true;
+                shard(cart.getId()).remove(cart.getId(), buffered);
+                throw e;
+            }
+        } finally {
+            buffered.lock.unlock();
+        }
+        log.info("Created the order in memory.");
+        return copyOf(cart);
+    }
+
+    /**
+     * @return a copy of the current state of the cart, read from the database when it is not in memory, null when the
+     * order does not exist.
+     */
+    @Override
+    public OrderDetails get(String orderId) {
+        BufferedCart buffered = buffered(orderId);
+        if (buffered == null) {
+            return null;
+        }
+        buffered.touch();
+        return copyOf(buffered.cart);
+    }
+
+    /**
+     * Applies the change to a copy of the cart, and replaces the cart with it once the change is journaled. The change
+     * gets null when the order does not exist, and is expected to reject it.
+     *
+     * @return the updated cart, not to be changed any further.
+     */
+    @Override
+    public OrderDetails update(String orderId, Consumer<OrderDetails> change) {
+        while (true) {
+            BufferedCart buffered = buffered(orderId);
+            if (buffered == null) {
+                change.accept(null);
+                throw new IllegalStateException("The change of the missing orderId=" + orderId + " has not been rejected");
+            }
+            OrderDetails updated;
+            buffered.lock.lock();
+            try {
+                if (buffered.evicted) {
+                    continue;
+                }
+                OrderDetails current = buffered.cart;
+                updated = updateTemplate.execute(status -> {
+                    OrderDetails copy = copyOf(current);
+                    change.accept(copy);
+                    copy.setVersion(current.getVersion() + 1);
+                    copy.setUpdateDate(Timestamp.valueOf(OffsetDateTime.now().toLocalDateTime()));
+                    journal.append(changeOf(current, copy));
+                    return copy;
+                });
+                buffered.cart = updated;
+                buffered.touch();
+                dirtyOrderIds.add(orderId);
+            } finally {
+                buffered.lock.unlock();
+            }
+            if (dirtyOrderIds.size() >= properties.getMaxDirtyCarts()) {
+                requestFlush();
+            }
+            return updated;
+        }
+    }
+
+    /**
+     * Writes the carts changed since the previous flush to the database, max-dirty-carts of them per transaction with
+     * their statements batched, and drops the carts idle for the idle timeout from memory, then the least recently used
+     * ones of the shards still over their capacity. The carts which fail to be written are retried by the next flush.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            long start = System.nanoTime();
+            int flushed = 0;
+            try {
+                List<String> orderIds = new ArrayList<>(dirtyOrderIds);
+                dirtyOrderIds.removeAll(orderIds);
+                List<PendingWrite> pending = new ArrayList<>();
+                for (String orderId : orderIds) {
+                    BufferedCart buffered = shard(orderId).get(orderId);
+                    if (buffered == null) {
+                        continue;
+                    }
+                    try {
+                        if (merge(buffered) && buffered.isDirty()) {
+                            pending.add(new PendingWrite(buffered, buffered.cart, buffered.flushedVersion));
+                        }
+                    } catch (RuntimeException e) {
+                        dirtyOrderIds.add(orderId);
+                        log.warn("Unable to read the cart orderId={}, retrying with the next flush, error={}",
+                                orderId, e.getMessage());
+                    }
+                }
+                int batchSize = Math.max(1, properties.getMaxDirtyCarts());
+                for (int from = 0; from < pending.size(); from += batchSize) {
+                    flushed += write(pending.subList(from, Math.min(from + batchSize, pending.size())));
+                }
+                /* Bounds the events lost by a crash of the host to a flush interval. */
+                journal.force();
+            } finally {
+                flushedCounter.increment(flushed);
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (flushed > 0) {
+                log.info("Wrote {} carts to the database", flushed);
+            }
+            evictIdleCarts();
+            for (Shard shard : shards) {
+                shard.trim(shardCapacity, null);
+            }
+        }
+    }
+
+    /**
+     * Writes all the carts in memory to a new snapshot, and deletes the journal it replaces. Skipped when nothing has
+     * been journaled since the previous snapshot, and until the carts replayed without their stored state are merged
+     * with it.
+     */
+    public void snapshot() {
+        synchronized (flushLock) {
+            long start = System.nanoTime();
+            try {
+                for (Shard shard : shards) {
+                    for (BufferedCart buffered : shard.carts()) {
+                        merge(buffered);
+                    }
+                }
+                long sequence = journal.rotate();
+                if (sequence == snapshotSequence) {
+                    return;
+                }
+                /* Every event of the closed segments has been applied to its cart once its buffer is released. */
+                List<SnapshotCart> snapshotCarts = new ArrayList<>();
+                for (Shard shard : shards) {
+                    for (BufferedCart buffered : shard.carts()) {
+                        buffered.lock.lock();
+                        try {
+                            if (!buffered.evicted) {
+                                snapshotCarts.add(new SnapshotCart(buffered.cart, buffered.flushedVersion));
+                            }
+                        } finally {
+                            buffered.lock.unlock();
+                        }
+                    }
+                }
+                snapshots.write(sequence, snapshotCarts);
+                journal.deleteSegmentsUpTo(sequence);
+                snapshotSequence = sequence;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to snapshot the carts", e);
+            } finally {
+                snapshotTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes the carts still waiting and a last snapshot before the shutdown, so the next startup restores the carts
+     * from the snapshot alone.
+     */
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (journal == null) {
+            return;
+        }
+        closed = true;
+        flusher.shutdown();
+        flusher.awaitTermination(properties.getFlushInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+        flushQuietly();
+        snapshotQuietly();
+        journal.close();
+    }
+
+    /**
+     * @return the number of carts held in memory.
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    private void requestFlush() {
+        /* Until started, the recovery is followed by a flush anyway, and once closed the last flush is on its way. */
+        if (flusher == null || closed || !flushRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        } catch (RejectedExecutionException e) {
+            /* Closed meanwhile, the update requesting it is applied already. */
+            flushRequested.set(false);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Unable to flush the carts, error={}", e.getMessage());
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.warn("Unable to snapshot the carts, the journal is kept until the next one, error={}", e.getMessage());
+        }
+    }
+
+    private Shard shard(String orderId) {
+        return shards[(orderId.hashCode() & Integer.MAX_VALUE) % shards.length];
+    }
+
+    private BufferedCart buffered(String orderId) {
+        BufferedCart buffered = shard(orderId).get(orderId);
+        if (buffered != null) {
+            return merge(buffered) ? buffered : null;
+        }
+        OrderDetails stored = orderRepository.findWithItemsById(orderId).orElse(null);
+        if (stored == null) {
+            return null;
+        }
+        BufferedCart loaded = new BufferedCart(copyOf(stored), stored.getVersion());
+        BufferedCart raced = insert(orderId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    /**
+     * Adds the cart to its shard unless it holds one already, making room for it.
+     *
+     * @return the cart held already, null when added.
+     */
+    private BufferedCart insert(String orderId, BufferedCart buffered) {
+        Shard shard = shard(orderId);
+        BufferedCart raced = shard.putIfAbsent(orderId, buffered);
+        if (raced == null && !shard.trim(shardCapacity, buffered)) {
+            /* Its carts are all waiting to be written, they are dropped once written. */
+            requestFlush();
+        }
+        return raced;
+    }
+
+    /**
+     * Writes the carts in a single transaction, or each one in its own when that fails, so a cart which cannot be
+     * written does not hold the others back.
+     *
+     * @return the number of carts written.
+     */
+    private int write(List<PendingWrite> writes) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writeAll(writes));
+            return written(writes);
+        } catch (RuntimeException e) {
+            log.warn("Unable to write {} carts at once, writing them one by one, error={}", writes.size(), e.getMessage());
+        }
+        int written = 0;
+        for (PendingWrite write : writes) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeAll(List.of(write)));
+                written += written(List.of(write));
+            } catch (RuntimeException e) {
+                dirtyOrderIds.add(write.cart.getId());
+                log.warn("Unable to write the cart orderId={}, retrying with the next flush, error={}",
+                        write.cart.getId(), e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Reads the stored carts in one select, applies the items changed in memory to them, and saves them along with
+     * their versions, the statements of all the carts batched. The carts never written are inserted, and so are the
+     * ones purged meanwhile as abandoned carts, without the reservations their purge has given back.
+     */
+    private void writeAll(List<PendingWrite> writes) {
+        Map<String, OrderDetails> storedById = orderRepository.findWithItemsByIdIn(writes.stream()
+                .map(write -> write.cart.getId())
+                .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(OrderDetails::getId, Function.identity()));
+        List<OrderDetails> toSave = new ArrayList<>(writes.size());
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (PendingWrite write : writes) {
+            OrderDetails cart = write.cart;
+            OrderDetails stored = storedById.get(cart.getId());
+            write.recreated = stored == null && write.flushedVersion >= 0;
+            if (stored == null) {
+                /* Without version, saved as a new order. */
+                stored = OrderDetails.builder()
+                        .id(cart.getId())
+                        .createDate(cart.getCreateDate())
+                        .productItems(new ArrayList<>())
+                        .build();
+            }
+            Map<Long, ProductItem> storedItems = stored.getProductItems().stream()
+                    .collect(Collectors.toMap(ProductItem::getProductId, Function.identity(), (first, second) -> first));
+            for (ProductItem item : cart.getProductItems()) {
+                ProductItem storedItem = storedItems.get(item.getProductId());
+                if (storedItem == null) {
+                    storedItem = copyOf(item);
+                    stored.getProductItems().add(storedItem);
+                } else if (!sameState(storedItem, item)) {
+                    storedItem.setCount(item.getCount());
+                    storedItem.setReservedCount(item.getReservedCount());
+                    storedItem.setLineTotal(item.getLineTotal());
+                }
+                if (write.recreated) {
+                    storedItem.setReservedCount(0L);
+                }
+            }
+            stored.setTotalPrice(cart.getTotalPrice());
+            stored.setUpdateDate(cart.getUpdateDate());
+            toSave.add(stored);
+            versions.put(cart.getId(), cart.getVersion());
+        }
+        orderRepository.saveAll(toSave);
+        orderRepository.advanceVersions(versions);
+    }
+
+    /**
+     * Marks the carts written, and clears the reservations of the carts re-created in the database from memory too,
+     * through an update of their own so it is journaled.
+     *
+     * @return the number of carts written.
+     */
+    private int written(List<PendingWrite> writes) {
+        for (PendingWrite write : writes) {
+            write.buffered.flushedVersion = write.cart.getVersion();
+            if (!write.recreated) {
+                continue;
+            }
+            log.warn("Re-created the cart orderId={} deleted from the database while in memory, without its reservations",
+                    write.cart.getId());
+            try {
+                update(write.cart.getId(), cart -> {
+                    if (cart == null) {
+                        throw new IllegalStateException("Cart not found");
+                    }
+                    cart.getProductItems().forEach(item -> item.setReservedCount(0L));
+                });
+            } catch (RuntimeException e) {
+                log.warn("Unable to clear the reservations of the re-created cart orderId={}, error={}",
+                        write.cart.getId(), e.getMessage());
+            }
+        }
+        return writes.size();
+    }
+
+    private void replay(CartChange change) {
+        if (change.getType() == CartChange.Type.CREATED) {
+            if (shard(change.getOrderId()).get(change.getOrderId()) == null) {
+                shard(change.getOrderId()).putIfAbsent(change.getOrderId(), new BufferedCart(OrderDetails.builder()
+                        .id(change.getOrderId())
+                        .createDate(change.getUpdateDate())
+                        .updateDate(change.getUpdateDate())
+                        .totalPrice(change.getTotalPrice())
+                        .version(change.getVersion())
+                        .productItems(new ArrayList<>())
+                        .build(), -1));
+                dirtyOrderIds.add(change.getOrderId());
+            }
+            return;
+        }
+        BufferedCart buffered = shard(change.getOrderId()).get(change.getOrderId());
+        if (buffered == null) {
+            /* Changed since written to the database, its stored state is merged once the cart is used. */
+            List<ProductItem> items = new ArrayList<>();
+            change.getItems().forEach(item -> items.add(copyOf(item)));
+            buffered = new BufferedCart(OrderDetails.builder()
+                    .id(change.getOrderId())
+                    .updateDate(change.getUpdateDate())
+                    .totalPrice(change.getTotalPrice())
+                    .version(change.getVersion())
+                    .productItems(items)
+                    .build(), change.getVersion() - 1);
+            buffered.replayed = true;
+            shard(change.getOrderId()).putIfAbsent(change.getOrderId(), buffered);
+            dirtyOrderIds.add(change.getOrderId());
+            return;
+        }
+        if (change.getVersion() <= buffered.cart.getVersion()) {
+            return;
+        }
+        OrderDetails cart = buffered.cart;
+        applyItems(cart, change.getItems());
+        cart.setTotalPrice(change.getTotalPrice());
+        cart.setUpdateDate(change.getUpdateDate());
+        cart.setVersion(change.getVersion());
+        dirtyOrderIds.add(change.getOrderId());
+    }
+
+    /**
+     * Completes a cart replayed without its stored state with the items it did not change, and the stored version. The
+     * events of the versions written already are superseded by the stored cart.
+     *
+     * @return false when the cart has been purged from the database meanwhile, it is dropped.
+     */
+    private boolean merge(BufferedCart buffered) {
+        if (!buffered.replayed) {
+            return true;
+        }
+        String orderId = buffered.cart.getId();
+        buffered.lock.lock();
+        try {
+            if (!buffered.replayed) {
+                return !buffered.evicted;
+            }
+            OrderDetails stored = orderRepository.findWithItemsById(orderId).orElse(null);
+            buffered.replayed = false;
+            if (stored == null) {
+                /* Purged as an abandoned cart before the crash, whatever it reserved since is left unsold. */
+                log.warn("Dropping the replayed cart orderId={} deleted from the database", orderId);
+                drop(orderId, buffered);
+                return false;
+            }
+            OrderDetails cart = copyOf(stored);
+            if (buffered.cart.getVersion() > stored.getVersion()) {
+                applyItems(cart, buffered.cart.getProductItems());
+                cart.setTotalPrice(buffered.cart.getTotalPrice());
+                cart.setUpdateDate(buffered.cart.getUpdateDate());
+                cart.setVersion(buffered.cart.getVersion());
+            }
+            buffered.cart = cart;
+            buffered.flushedVersion = stored.getVersion();
+            return true;
+        } finally {
+            buffered.lock.unlock();
+        }
+    }
+
+    private void evictIdleCarts() {
+        long idleSince = System.currentTimeMillis() - properties.getIdleTimeout().toMillis();
+        for (Shard shard : shards) {
+            for (BufferedCart buffered : shard.carts()) {
+                if (buffered.lastAccess >= idleSince) {
+                    continue;
+                }
+                buffered.lock.lock();
+                try {
+                    if (buffered.lastAccess < idleSince && !buffered.isDirty()) {
+                        buffered.evicted = true;
+                        shard.remove(buffered.cart.getId(), buffered);
+                    }
+                } finally {
+                    buffered.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void drop(String orderId, BufferedCart buffered) {
+        buffered.lock.lock();
+        try {
+            buffered.evicted = true;
+            shard(orderId).remove(orderId, buffered);
+        } finally {
+            buffered.lock.unlock();
+        }
+        orderSummaryCache.invalidate(orderId);
+    }
+
+    /**
+     * Sets the state of the cart items to the one of the changed items, adding the items the cart has not.
+     */
+    private static void applyItems(OrderDetails cart, List<ProductItem> changedItems) {
+        Map<Long, ProductItem> items = cart.getProductItems().stream()
+                .collect(Collectors.toMap(ProductItem::getProductId, Function.identity(), (first, second) -> first));
+        for (ProductItem item : changedItems) {
+            ProductItem current = items.get(item.getProductId());
+            if (current == null) {
+                cart.getProductItems().add(copyOf(item));
+            } else {
+                current.setCount(item.getCount());
+                current.setReservedCount(item.getReservedCount());
+                current.setLineTotal(item.getLineTotal());
+            }
+        }
+    }
+
+    /**
+     * @return the items of the updated cart which differ from the current one, along with the totals of the update.
+     */
+    private static CartChange changeOf(OrderDetails current, OrderDetails updated) {
+        Map<Long, ProductItem> currentItems = current.getProductItems().stream()
+                .collect(Collectors.toMap(ProductItem::getProductId, Function.identity(), (first, second) -> first));
+        List<ProductItem> changedItems = updated.getProductItems().stream()
+                .filter(item -> !sameState(currentItems.get(item.getProductId()), item))
+                .collect(Collectors.toList());
+        return new CartChange(CartChange.Type.ITEMS_CHANGED, updated.getId(), updated.getVersion(), updated.getUpdateDate(),
+                updated.getTotalPrice(), changedItems);
+    }
+
+    private static boolean sameState(ProductItem stored, ProductItem item) {
+        return stored != null
+                && Objects.equals(stored.getCount(), item.getCount())
+                && Objects.equals(stored.getReservedCount(), item.getReservedCount())
+                && Objects.equals(stored.getLineTotal(), item.getLineTotal());
+    }
+
+    private static OrderDetails copyOf(OrderDetails orderDetails) {
+        List<ProductItem> items = new ArrayList<>();
+        /* A cart just created has no item list yet. */
+        if (orderDetails.getProductItems() != null) {
+            orderDetails.getProductItems().forEach(item -> items.add(copyOf(item)));
+        }
+        return OrderDetails.builder()
+                .id(orderDetails.getId())
+                .createDate(orderDetails.getCreateDate())
+                .updateDate(orderDetails.getUpdateDate())
+                .productItems(items)
+                .totalPrice(orderDetails.getTotalPrice())
+                .version(orderDetails.getVersion())
+                .build();
+    }
+
+    /* Without id and version, the copy written to the database is a new item. */
+    private static ProductItem copyOf(ProductItem item) {
+        return ProductItem.builder()
+                .productId(item.getProductId())
+                .name(item.getName())
+                .price(item.getPrice())
+                .count(item.getCount())
+                .reservedCount(item.getReservedCount())
+                .lineTotal(item.getLineTotal())
+                .build();
+    }
+
+    /**
+     * The carts of a shard, least recently used first. Its lock is held for the lookups only: a shard lock may be taken
+     * while holding the lock of a cart, never the other way round, so a shard only tries the locks of its carts.
+     */
+    private static final class Shard {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final LinkedHashMap<String, BufferedCart> carts = new LinkedHashMap<>(16, 0.75f, true);
+
+        BufferedCart get(String orderId) {
+            lock.lock();
+            try {
+                return carts.get(orderId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        BufferedCart putIfAbsent(String orderId, BufferedCart buffered) {
+            lock.lock();
+            try {
+                return carts.putIfAbsent(orderId, buffered);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(String orderId, BufferedCart buffered) {
+            lock.lock();
+            try {
+                if (carts.get(orderId) == buffered) {
+                    carts.remove(orderId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<BufferedCart> carts() {
+            lock.lock();
+            try {
+                return new ArrayList<>(carts.values());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return carts.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Drops the least recently used carts already written until the shard is within its capacity, skipping the
+         * carts being updated and the one kept, just added for use.
+         *
+         * @return false when the shard is still over its capacity.
+         */
+        boolean trim(int capacity, BufferedCart kept) {
+            lock.lock();
+            try {
+                Iterator<BufferedCart> eldest = carts.values().iterator();
+                while (carts.size() > capacity && eldest.hasNext()) {
+                    BufferedCart buffered = eldest.next();
+                    if (buffered == kept || !buffered.lock.tryLock()) {
+                        continue;
+                    }
+                    try {
+                        if (!buffered.isDirty()) {
+                            buffered.evicted = true;
+                            eldest.remove();
+                        }
+                    } finally {
+                        buffered.lock.unlock();
+                    }
+                }
+                return carts.size() <= capacity;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A cart to write, as it was when the flush started.
+     */
+    private static final class PendingWrite {
+
+        private final BufferedCart buffered;
+
+        private final OrderDetails cart;
+
+        private final long flushedVersion;
+
+        /* Set when the cart was purged from the database while in memory, and is inserted again. */
+        private boolean recreated;
+
+        PendingWrite(BufferedCart buffered, OrderDetails cart, long flushedVersion) {
+            this.buffered = buffered;
+            this.cart = cart;
+            this.flushedVersion = flushedVersion;
+        }
+    }
+
+    /**
+     * The current state of a cart in memory, replaced as a whole by every update.
+     */
+    private static final class BufferedCart {
+
+        /* Serialises the updates of the cart, and its eviction. */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile OrderDetails cart;
+
+        /* Version of the cart last written to the database, -1 until a cart created in memory is inserted. */
+        private volatile long flushedVersion;
+
+        private volatile long lastAccess;
+
+        /* Set once the buffer is dropped from memory, the updates holding it look the cart up again. */
+        private boolean evicted;
+
+        /* Set while the cart holds the items replayed from the journal only, without its stored state. */
+        private volatile boolean replayed;
+
+        BufferedCart(OrderDetails cart, long flushedVersion) {
+            this.cart = cart;
+            this.flushedVersion = flushedVersion;
+            touch();
+        }
+
+        boolean isDirty() {
+            return cart.getVersion() > flushedVersion;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package io.recruitment.assessment.api.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+@Configuration
+public class ApiExecutorConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public ApiTaskExecutor apiTaskExecutor(ApiExecutorProperties properties, ObjectProvider<TaskDecorator> taskDecorator) {
+        ApiTaskExecutor apiTaskExecutor = new ApiTaskExecutor(properties);
+        taskDecorator.ifAvailable(apiTaskExecutor::setTaskDecorator);
+        return apiTaskExecutor;
+    }
+}
@@ -0,0 +1,41 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the executor on which all the *ApiDelegate implementations run their blocking work.
+ * The pool should be kept in line with the datasource connection pool, as every task holds a connection.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "api.executor")
+public class ApiExecutorProperties {
+
+    /** Name of the pool, used as thread name prefix and as metrics tag. */
+    private String name = "api-worker";
+
+    private int corePoolSize = 20;
+
+    private int maxPoolSize = 50;
+
+    /** Tasks waiting for a free thread, once full the requests are rejected with 503. */
+    private int queueCapacity = 500;
+
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    /** Run every task on its own virtual thread, only honoured on a JDK which supports them. */
+    private boolean virtualThreads = false;
+
+    /**
+     * Answer the reads served from memory on the request thread, and load the uncached catalogue pages once for all the
+     * concurrent requests of the same page, rather than holding a worker for every read.
+     */
+    private boolean nonBlockingReads = true;
+
+}
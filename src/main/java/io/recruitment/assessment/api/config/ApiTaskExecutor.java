@@ -0,0 +1,176 @@
+package io.recruitment.assessment.api.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor shared by all the *ApiDelegate implementations, so that the blocking JPA calls
+ * never run on the common ForkJoinPool. Tasks which does not fit in the pool and its queue are
+ * rejected with a {@link RejectedExecutionException}, which is reported as 503 to the client.
+ */
+@Slf4j
+public class ApiTaskExecutor implements MeterBinder {
+
+    @Getter
+    private final String name;
+
+    private final ExecutorService executorService;
+
+    /* Only one of them is present, depending on the thread mode of the executor. */
+    private final ThreadPoolExecutor threadPool;
+    private final Semaphore virtualThreadPermits;
+    private final int virtualThreadCapacity;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final long shutdownTimeoutMillis;
+
+    private final boolean nonBlockingReads;
+
+    private volatile TaskDecorator taskDecorator = task -> task;
+
+    public ApiTaskExecutor(ApiExecutorProperties properties) {
+        this.name = properties.getName();
+        this.shutdownTimeoutMillis = properties.getShutdownTimeout().toMillis();
+        this.nonBlockingReads = properties.isNonBlockingReads();
+
+        ExecutorService virtualThreadExecutor = properties.isVirtualThreads() ? createVirtualThreadExecutor(name) : null;
+        if (virtualThreadExecutor != null) {
+            /* Virtual threads are cheap, but the database is not, so the in-flight tasks are still bounded. */
+            this.virtualThreadCapacity = properties.getMaxPoolSize() + properties.getQueueCapacity();
+            this.virtualThreadPermits = new Semaphore(virtualThreadCapacity);
+            this.threadPool = null;
+            this.executorService = virtualThreadExecutor;
+            log.info("Executor {} started in virtual thread mode, capacity={}", name, virtualThreadCapacity);
+        } else {
+            this.virtualThreadCapacity = 0;
+            this.virtualThreadPermits = null;
+            this.threadPool = new ThreadPoolExecutor(
+                    properties.getCorePoolSize(),
+                    properties.getMaxPoolSize(),
+                    properties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS,
+                    properties.getQueueCapacity() > 0
+                            ? new LinkedBlockingQueue<>(properties.getQueueCapacity())
+                            : new SynchronousQueue<>(),
+                    new CustomizableThreadFactory(name + "-"),
+                    (task, executor) -> reject());
+            this.executorService = threadPool;
+            log.info("Executor {} started, corePoolSize={}, maxPoolSize={}, queueCapacity={}", name,
+                    properties.getCorePoolSize(), properties.getMaxPoolSize(), properties.getQueueCapacity());
+        }
+    }
+
+    /**
+     * Decorates every task when it is submitted, e.g. to carry the context of the request over to the worker thread.
+     */
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    /**
+     * Runs the supplier on this executor.
+     *
+     * @throws RejectedExecutionException when the executor is saturated.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        if (virtualThreadPermits == null) {
+            return CompletableFuture.supplyAsync(supplier, task -> threadPool.execute(taskDecorator.decorate(task)));
+        }
+        if (!virtualThreadPermits.tryAcquire()) {
+            reject();
+        }
+        try {
+            return CompletableFuture.supplyAsync(supplier, task -> executorService.execute(taskDecorator.decorate(task)))
+                    .whenComplete((result, throwable) -> virtualThreadPermits.release());
+        } catch (RejectedExecutionException e) {
+            virtualThreadPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the supplier of a read served from memory on the calling thread, it would only wait for a free worker, or
+     * on this executor when the non-blocking reads are disabled. Its failure is reported by the future either way.
+     */
+    public <T> CompletableFuture<T> supplyFromMemory(Supplier<T> supplier) {
+        if (!nonBlockingReads) {
+            return supplyAsync(supplier);
+        }
+        try {
+            return CompletableFuture.completedFuture(supplier.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(new CompletionException(e));
+        }
+    }
+
+    public int getActiveCount() {
+        return threadPool != null
+                ? threadPool.getActiveCount()
+                : virtualThreadCapacity - virtualThreadPermits.availablePermits();
+    }
+
+    public int getQueuedCount() {
+        return threadPool != null ? threadPool.getQueue().size() : 0;
+    }
+
+    public int getPoolSize() {
+        return threadPool != null ? threadPool.getPoolSize() : getActiveCount();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("name", name);
+        Gauge.builder("api.executor.active", this, ApiTaskExecutor::getActiveCount)
+                .tags(tags).description("Tasks currently running on the executor").register(registry);
+        Gauge.builder("api.executor.queued", this, ApiTaskExecutor::getQueuedCount)
+                .tags(tags).description("Tasks waiting for a free thread").register(registry);
+        Gauge.builder("api.executor.pool.size", this, ApiTaskExecutor::getPoolSize)
+                .tags(tags).description("Threads currently in the pool").register(registry);
+        FunctionCounter.builder("api.executor.rejected", this, ApiTaskExecutor::getRejectedCount)
+                .tags(tags).description("Tasks rejected because the executor was saturated").register(registry);
+    }
+
+    public void shutdown() throws InterruptedException {
+        log.info("Shutting down executor {}", name);
+        executorService.shutdown();
+        if (!executorService.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            log.warn("Executor {} did not terminate in {}ms, cancelling the pending tasks.", name, shutdownTimeoutMillis);
+            executorService.shutdownNow();
+        }
+    }
+
+    private void reject() {
+        rejectedCount.increment();
+        throw new RejectedExecutionException("Executor " + name + " is saturated.");
+    }
+
+    private static ExecutorService createVirtualThreadExecutor(String name) {
+        /* Looked up reflectively, as the application is still built against Java 11. */
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not supported by the running JDK, falling back to the thread pool for {}.", name);
+            return null;
+        }
+    }
+}
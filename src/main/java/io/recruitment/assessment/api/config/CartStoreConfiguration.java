@@ -0,0 +1,26 @@
+package io.recruitment.assessment.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.recruitment.assessment.api.cache.OrderSummaryCache;
+import io.recruitment.assessment.api.cart.CartStore;
+import io.recruitment.assessment.api.cart.JpaCartStore;
+import io.recruitment.assessment.api.cart.ShardedCartStore;
+import io.recruitment.assessment.api.repository.OrderRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class CartStoreConfiguration {
+
+    @Bean
+    public CartStore cartStore(CartWriteBehindProperties properties, OrderProperties orderProperties,
+                               OrderRepository orderRepository, OrderSummaryCache orderSummaryCache,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        if (properties.isEnabled()) {
+            return new ShardedCartStore(orderRepository, orderSummaryCache, properties, transactionManager, meterRegistry);
+        }
+        return new JpaCartStore(orderRepository, new TransactionTemplate(transactionManager), orderProperties);
+    }
+}
@@ -0,0 +1,48 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "orders.write-behind")
+public class CartWriteBehindProperties {
+
+    /**
+     * Hold the carts in use in memory, apply their updates there and write them to the database in the background,
+     * instead of reading and writing the database on every call. Only for a single instance serving the carts, the
+     * carts changed through another instance are overwritten.
+     */
+    private boolean enabled = false;
+
+    /** Delay between two writes of the changed carts, bounds how far the database lags behind the carts. */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /** Changed carts which trigger a write without waiting for the flush interval. */
+    private int maxDirtyCarts = 500;
+
+    /** Shards the carts in memory are spread over, each one locked on its own. */
+    private int shards = 64;
+
+    /** Carts held in memory at most, the least recently used ones written to the database being dropped past it. */
+    private int maxCarts = 100_000;
+
+    /** How long a cart written to the database stays in memory without being used. */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /** Directory of the journal of the cart events and of the snapshots of the carts, read on startup. One per instance. */
+    private Path journalDirectory = Paths.get("cart-journal");
+
+    /** Size of a journal segment, mapped in memory while it is written. */
+    private DataSize journalSegmentSize = DataSize.ofMegabytes(16);
+
+    /** Delay between two snapshots of the carts in memory, bounds the journal replayed on startup. */
+    private Duration snapshotInterval = Duration.ofMinutes(1);
+
+}
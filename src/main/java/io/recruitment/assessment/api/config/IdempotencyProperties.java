@@ -0,0 +1,29 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    /** How long a key is remembered, both in memory and in the Idempotency table, where the reaper purges it. */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * How long a key stays reserved by a request which has not stored its response, after which a retry with the key
+     * executes the request again. Longer than the slowest request, as the request is then assumed to have crashed.
+     */
+    private Duration inProgressLease = Duration.ofMinutes(1);
+
+    /** Upper bound of the keys kept in memory, the oldest keys are evicted first. */
+    private int maxCachedKeys = 100_000;
+
+    /** Largest compressed response stored for replay, bigger responses are not replayed. */
+    private int maxResponseBytes = 16 * 1024;
+
+}
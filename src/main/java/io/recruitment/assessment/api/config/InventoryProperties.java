@@ -0,0 +1,24 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "inventory")
+public class InventoryProperties {
+
+    /** Reserve the inventory of the products added to a cart, the products without inventory are never limited. */
+    private boolean enabled = true;
+
+    /**
+     * Units taken from the database in advance for the next reservations of a product, so a hot product updates its row
+     * once per lease instead of once per add. Up to this many units per product can stay unsold after a crash.
+     */
+    private int leaseSize = 20;
+
+    /** Counters the leased units of a product are spread over, so concurrent reservations do not contend on one. */
+    private int stripes = 4;
+
+}
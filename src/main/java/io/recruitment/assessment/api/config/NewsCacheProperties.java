@@ -0,0 +1,20 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "news.cache")
+public class NewsCacheProperties {
+
+    /** Serve the news list from memory instead of the database. */
+    private boolean enabled = true;
+
+    /** Bounds how long a news added through another instance can stay invisible. */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+}
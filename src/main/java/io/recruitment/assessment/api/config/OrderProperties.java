@@ -0,0 +1,20 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "orders")
+public class OrderProperties {
+
+    /** Attempts made to apply a cart update which keeps conflicting with concurrent updates of the same cart. */
+    private int maxUpdateAttempts = 3;
+
+    /** Pause before the first retry, doubled and randomised for every further retry. */
+    private Duration updateRetryBackoff = Duration.ofMillis(10);
+
+}
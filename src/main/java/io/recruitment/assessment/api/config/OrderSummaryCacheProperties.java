@@ -0,0 +1,20 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "orders.summary-cache")
+public class OrderSummaryCacheProperties {
+
+    /** Order summaries kept in memory, one per order. */
+    private int maxOrders = 10_000;
+
+    /** Bounds how long a cart updated through another instance can be served stale. */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+}
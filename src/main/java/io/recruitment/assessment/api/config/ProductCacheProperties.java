@@ -0,0 +1,23 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.cache")
+public class ProductCacheProperties {
+
+    /** Catalogue pages kept in memory, one per searchParam, pageNo and pageSize combination. */
+    private int maxPages = 1_000;
+
+    /** Products kept in memory for the lookups by product id. */
+    private int maxProducts = 10_000;
+
+    /** Bounds how long a change made through another instance can stay invisible. */
+    private Duration timeToLive = Duration.ofMinutes(10);
+
+}
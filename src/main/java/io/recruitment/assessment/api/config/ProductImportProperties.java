@@ -0,0 +1,18 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.import")
+public class ProductImportProperties {
+
+    /** Products inserted per transaction, flushed to the database as JDBC batches. */
+    private int chunkSize = 1_000;
+
+    /** Rejected rows detailed in the import report, the rejected rows past it are only counted. */
+    private int maxReportedErrors = 1_000;
+
+}
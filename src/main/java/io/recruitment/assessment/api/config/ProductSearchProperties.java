@@ -0,0 +1,23 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.search")
+public class ProductSearchProperties {
+
+    /** Serve the catalogue searches from the in-memory index instead of the database. */
+    private boolean enabled = true;
+
+    /** Products read per query while the index is built at startup. */
+    private int loadBatchSize = 1_000;
+
+    /** Interval of the index rebuilds, picking up the products changed through other instances. */
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+}
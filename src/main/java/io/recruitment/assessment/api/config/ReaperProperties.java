@@ -0,0 +1,32 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "reaper")
+public class ReaperProperties {
+
+    /** Purge the expired news, the abandoned carts and the expired idempotency keys in the background. */
+    private boolean enabled = true;
+
+    /** Delay between the end of a purge and the start of the next one. */
+    private Duration interval = Duration.ofMinutes(10);
+
+    /** Rows deleted per statement, bounds how long a delete holds its locks. */
+    private int chunkSize = 1_000;
+
+    /** Pause between two chunks, leaves room to the API traffic on the same tables. */
+    private Duration chunkPause = Duration.ofMillis(100);
+
+    /** How long the news are kept after their expiry date. */
+    private Duration newsRetention = Duration.ofDays(7);
+
+    /** How long a cart is kept after its last change. */
+    private Duration cartRetention = Duration.ofDays(30);
+
+}
@@ -0,0 +1,30 @@
+package io.recruitment.assessment.api.config;
+
+import io.recruitment.assessment.api.metrics.RequestSqlStatistics;
+import io.recruitment.assessment.api.metrics.SqlStatisticsInterceptor;
+import io.recruitment.assessment.api.metrics.SqlTimingSessionListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+@Configuration
+public class SqlStatisticsConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatisticsHibernatePropertiesCustomizer() {
+        SqlStatisticsInterceptor interceptor = new SqlStatisticsInterceptor();
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, interceptor);
+            hibernateProperties.put(AvailableSettings.INTERCEPTOR, interceptor);
+            hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTimingSessionListener.class.getName());
+        };
+    }
+
+    /* Carries the statistics of the request over to the api executor threads. */
+    @Bean
+    public TaskDecorator requestSqlStatisticsPropagation() {
+        return RequestSqlStatistics.propagation();
+    }
+}
@@ -0,0 +1,24 @@
+package io.recruitment.assessment.api.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "sql-statistics")
+public class SqlStatisticsProperties {
+
+    /** Report the SQL work of every request in the X-SQL-* response headers, not meant for production. */
+    private boolean exposeHeaders = false;
+
+    /** Fail the request when it exceeds its statement budget, meant for the integration tests. */
+    private boolean failOnBudgetExceeded = false;
+
+    /** Statements allowed per request, by request method and handler pattern, e.g. "GET /news/api/v1/list". */
+    private Map<String, Integer> budgets = new HashMap<>();
+
+}
@@ -54,6 +54,7 @@ public class NewsManagementController implements NewsApi {
      *
      * @param pageNo Page number to choose which page to list, by default the value will be 0. (optional)
      * @param pageSize Page size to choose how many entries to be shown per page, by default the value will be 10. (optional)
+     * @param afterId Cursor mode: returns the newses with an id greater than afterId, ordered by id. Takes the X-Next-Cursor of the previous page, pageNo is not used. (optional)
      * @return Successful response: List of all active newses or offers. (status code 200)
      *         or Exception scenarios (status code 200)
      * @see NewsApi#newsApiV1ListGet
@@ -63,10 +64,12 @@ public class NewsManagementController implements NewsApi {
             @ApiParam(value = "Page number to choose which page to list, by default the value will be 0.")
             @Valid @RequestParam(value = "pageNo", required = false) Long pageNo,
             @ApiParam(value = "Page size to choose how many entries to be shown per page, by default the value will be 10.")
-            @Valid @RequestParam(value = "pageSize", required = false) Long pageSize) {
-        log.info("Request received for fetching news list, pageSize={}, pageNo={}", pageSize, pageNo);
+            @Valid @RequestParam(value = "pageSize", required = false) Long pageSize,
+            @ApiParam(value = "Cursor mode: returns the newses with an id greater than afterId, ordered by id. Takes the X-Next-Cursor of the previous page, pageNo is not used.")
+            @Valid @RequestParam(value = "afterId", required = false) Long afterId) {
+        log.info("Request received for fetching news list, pageSize={}, pageNo={}, afterId={}", pageSize, pageNo, afterId);
 
-        return newsApiDelegate.newsApiV1ListGet(pageNo, pageSize)
+        return newsApiDelegate.newsApiV1ListGet(pageNo, pageSize, afterId)
                 .thenApply(listResponseEntity -> {
                     log.info("Fetched {} records successfully.", listResponseEntity.getBody().size());
                     return listResponseEntity;
@@ -3,6 +3,7 @@ package io.recruitment.assessment.api.controllers;
 import io.recruitment.assessment.gen.api.OrdersApi;
 import io.recruitment.assessment.gen.api.OrdersApiDelegate;
 import io.recruitment.assessment.gen.model.AddProductRequest;
+import io.recruitment.assessment.gen.model.AddProductsBatchRequest;
 import io.recruitment.assessment.gen.model.ShoppingCartData;
 import io.swagger.annotations.ApiParam;
 import lombok.RequiredArgsConstructor;
@@ -50,7 +51,7 @@ public class OrderManagementController implements OrdersApi {
      * @param idempotencyKey Unique identifier for idempotency (required)
      * @param orderId The unique order id in our system, for which we will be adding new product. (required)
      * @param addProductRequest Request payload for adding a new news or product offer to our system. (required)
-     * @return Successful response: created product information. (status code 200)
+     * @return Successful response: created product information. (status code 201)
      *         or Exception scenarios (status code 200)
      * @see OrdersApi#ordersApiV1AddOrderIdPut
      */
@@ -71,19 +72,50 @@ public class OrderManagementController implements OrdersApi {
         });
     }
 
+    /**
+     * PUT /orders/api/v1/add/batch/{orderId} : This API will add a list of products to an existing shopping cart at once.
+     *
+     * @param idempotencyKey Unique identifier for idempotency (required)
+     * @param orderId The unique order id in our system, for which we will be adding the products. (required)
+     * @param addProductsBatchRequest Request payload for adding a list of products to the order. (required)
+     * @return Successful response: the shopping cart with all the products added. (status code 201)
+     *         or Exception scenarios (status code 200)
+     * @see OrdersApi#ordersApiV1AddBatchOrderIdPut
+     */
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public CompletableFuture<ResponseEntity<ShoppingCartData>> ordersApiV1AddBatchOrderIdPut(
+            @ApiParam(value = "Unique identifier for idempotency" ,required=true)
+            @RequestHeader(value="Idempotency-Key", required=true) String idempotencyKey,
+            @ApiParam(value = "The unique order id in our system, for which we will be adding the products.",required=true)
+            @PathVariable("orderId") String orderId,
+            @ApiParam(value = "Request payload for adding a list of products to the order." ,required=true )
+            @Valid @RequestBody AddProductsBatchRequest addProductsBatchRequest) {
+        log.info("Request received for adding {} products to the orderId={}, idempotencyKey={}",
+                addProductsBatchRequest.getItems().size(), orderId, idempotencyKey);
+        return ordersApiDelegate.ordersApiV1AddBatchOrderIdPut(idempotencyKey, orderId, addProductsBatchRequest)
+                .thenApply(shoppingCartDataResponseEntity -> {
+                    log.info("Products have been added successfully to the orderId={}", orderId);
+                    return shoppingCartDataResponseEntity;
+        });
+    }
+
     /**
      * GET /orders/api/v1/summary/{orderId} : This API will show the summary of a shopping cart.
      *
      * @param orderId  (required)
+     * @param ifNoneMatch The ETag of the summary already held by the client. (optional)
      * @return Successful response: created product information. (status code 200)
+     *         or The order has not changed since the summary held by the client. (status code 304)
      *         or Exception scenarios (status code 200)
      * @see OrdersApi#ordersApiV1SummaryOrderIdGet
      */
     @PreAuthorize("hasRole('CUSTOMER')")
     public CompletableFuture<ResponseEntity<ShoppingCartData>> ordersApiV1SummaryOrderIdGet(
-            @ApiParam(value = "",required=true) @PathVariable("orderId") String orderId) {
+            @ApiParam(value = "",required=true) @PathVariable("orderId") String orderId,
+            @ApiParam(value = "The ETag of the summary already held by the client.")
+            @RequestHeader(value="If-None-Match", required=false) String ifNoneMatch) {
         log.info("Request received for get order summary, orderId={}", orderId);
-        return ordersApiDelegate.ordersApiV1SummaryOrderIdGet(orderId)
+        return ordersApiDelegate.ordersApiV1SummaryOrderIdGet(orderId, ifNoneMatch)
                 .thenApply(shoppingCartDataResponseEntity -> {
                     log.info("Order summary has been generated and returned for orderId={}", orderId);
                     return shoppingCartDataResponseEntity;
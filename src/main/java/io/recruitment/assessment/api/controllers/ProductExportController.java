@@ -0,0 +1,49 @@
+package io.recruitment.assessment.api.controllers;
+
+import io.recruitment.assessment.api.service.ProductExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Bulk catalogue export for the partners pulling the whole catalogue. It is not part of the OpenAPI spec,
+ * as the generated interfaces cannot stream a response body.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class ProductExportController {
+
+    private final ProductExportService productExportService;
+
+    /**
+     * GET /products/api/v1/export : Streams every product of the catalogue as newline delimited JSON, in product id order.
+     *
+     * @param acceptEncoding the export is compressed with gzip when the client accepts it. (optional)
+     * @return One product per line, in the format of the product list API. (status code 200)
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/products/api/v1/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> productsApiV1ExportGet(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        log.info("Request received for exporting the product catalogue, gzip={}", gzip);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(out -> productExportService.exportProducts(out, gzip));
+    }
+}
@@ -0,0 +1,70 @@
+package io.recruitment.assessment.api.controllers;
+
+import io.recruitment.assessment.api.config.ApiTaskExecutor;
+import io.recruitment.assessment.api.service.IdempotencyService;
+import io.recruitment.assessment.api.service.ProductImportReport;
+import io.recruitment.assessment.api.service.ProductImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bulk catalogue import for the admins loading supplier catalogues. It is not part of the OpenAPI spec,
+ * as the generated interfaces cannot read a request body as a stream.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class ProductImportController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ProductImportService productImportService;
+
+    private final IdempotencyService idempotencyService;
+
+    private final ApiTaskExecutor apiTaskExecutor;
+
+    /**
+     * POST /products/api/v1/import : Adds every product of the body to the catalogue, one product per NDJSON line
+     * or per CSV record with a name,description,price header.
+     *
+     * @param idempotencyKey Unique identifier for idempotency (required)
+     * @param contentEncoding the body is decompressed when it is sent with gzip. (optional)
+     * @return How many products were imported, and the rows rejected with the reason. (status code 201)
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/products/api/v1/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<ProductImportReport>> productsApiV1ImportPost(
+            @RequestHeader(value = "Idempotency-Key", required = true) String idempotencyKey,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            HttpServletRequest request) {
+        ProductImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_NDJSON) ? ProductImportService.Format.NDJSON : ProductImportService.Format.CSV;
+        boolean gzip = "gzip".equalsIgnoreCase(contentEncoding);
+        log.info("Request received for importing products, format={}, gzip={}, idempotencyKey={}", format, gzip, idempotencyKey);
+
+        return apiTaskExecutor.supplyAsync(() -> idempotencyService.execute(idempotencyKey, ProductImportReport.class, () -> {
+            try (InputStream in = gzip ? new GZIPInputStream(request.getInputStream(), 8192) : request.getInputStream()) {
+                return new ResponseEntity<>(productImportService.importProducts(in, format), HttpStatus.CREATED);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+}
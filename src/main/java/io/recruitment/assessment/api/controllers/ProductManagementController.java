@@ -76,6 +76,8 @@ public class ProductManagementController implements ProductsApi {
      * @param searchParam Custom search param for filtering the product list. (optional)
      * @param pageNo Page number to choose which page to list, by default the value will be 1. (optional)
      * @param pageSize Page size to choose how many entries to be shown per page, by default the value will be 10. (optional)
+     * @param sortBy Ordering of the products matching the searchParam, by product id or by relevance. By default the value will be id. (optional)
+     * @param afterId Cursor mode: returns the products with an id greater than afterId, ordered by id. Takes the X-Next-Cursor of the previous page, pageNo is not used. (optional)
      * @return Successful response: sub list of product catalogue. (status code 200)
      *         or Exception scenarios (status code 200)
      * @see ProductsApi#productsApiV1ListGet
@@ -87,11 +89,16 @@ public class ProductManagementController implements ProductsApi {
             @ApiParam(value = "Page number to choose which page to list, by default the value will be 1.")
             @Valid @RequestParam(value = "pageNo", required = false) Long pageNo,
             @ApiParam(value = "Page size to choose how many entries to be shown per page, by default the value will be 10.")
-            @Valid @RequestParam(value = "pageSize", required = false) Long pageSize) {
+            @Valid @RequestParam(value = "pageSize", required = false) Long pageSize,
+            @ApiParam(value = "Ordering of the products matching the searchParam, by product id or by relevance. By default the value will be id.", allowableValues = "id, relevance")
+            @Valid @RequestParam(value = "sortBy", required = false) String sortBy,
+            @ApiParam(value = "Cursor mode: returns the products with an id greater than afterId, ordered by id. Takes the X-Next-Cursor of the previous page, pageNo is not used.")
+            @Valid @RequestParam(value = "afterId", required = false) Long afterId) {
 
-        log.info("Request received for fetching product list, searchParam={}, pageSize={}, pageNo={}", searchParam, pageSize, pageNo);
+        log.info("Request received for fetching product list, searchParam={}, pageSize={}, pageNo={}, sortBy={}, afterId={}",
+                searchParam, pageSize, pageNo, sortBy, afterId);
 
-        return productsApiDelegate.productsApiV1ListGet(searchParam, pageNo, pageSize)
+        return productsApiDelegate.productsApiV1ListGet(searchParam, pageNo, pageSize, sortBy, afterId)
                 .thenApply(listResponseEntity -> {
                     log.info("Fetched {} records successfully.", listResponseEntity.getBody().size());
                     return listResponseEntity;
@@ -5,18 +5,30 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
-import javax.persistence.Entity;
-import javax.persistence.Id;
+import javax.persistence.*;
+import java.sql.Timestamp;
 
 @Entity
 @Builder
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = @Index(name = "idx_idempotency_create_date", columnList = "createDate"))
 public class Idempotency {
 
     @Id
     private String id;
 
+    @Column
+    private Timestamp createDate;
+
+    /* Status of the original response, null while the request is still in progress. */
+    @Column
+    private Integer responseStatus;
+
+    /* GZIP compressed JSON of the original response body, null when it exceeded the size limit. */
+    @Lob
+    @Column
+    private byte[] responseBody;
 
 }
@@ -4,11 +4,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import java.sql.Timestamp;
 
 @Entity
+@Table(indexes = @Index(name = "idx_news_expiry_date", columnList = "expiryDate"))
 @Builder
 @Getter
 @NoArgsConstructor
@@ -16,7 +19,9 @@ import java.sql.Timestamp;
 public class News {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "news_id")
+    @GenericGenerator(name = "news_id", strategy = "io.recruitment.assessment.api.dvo.PooledIdGenerator",
+            parameters = @Parameter(name = "segment_value", value = "news"))
     private Long id;
 
     @Column
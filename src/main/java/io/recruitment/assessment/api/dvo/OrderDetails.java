@@ -3,6 +3,7 @@ package io.recruitment.assessment.api.dvo;
 import lombok.*;
 
 import javax.persistence.*;
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
@@ -21,8 +22,21 @@ public class OrderDetails {
     @Column
     private Timestamp createDate;
 
+    /* Last change of the cart, abandoned carts are purged by it. Null on the carts never changed since it exists. */
+    @Column
+    private Timestamp updateDate;
+
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "DEFAULT_ORDER_ID", referencedColumnName = "id", nullable = false)
     private List<ProductItem> productItems = new ArrayList<>();
 
+    /* Sum of the line totals of all the items, kept up to date on every item change. */
+    @Column(precision = 19, scale = 2)
+    private BigDecimal totalPrice;
+
+    /* Bumped whenever the list of items changes, so concurrent cart updates are detected on commit. */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 }
@@ -0,0 +1,37 @@
+package io.recruitment.assessment.api.dvo;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Id generator of the entities inserted in bulk. Every instance reserves a block of ids from its row of the
+ * id_generator table in one round trip and hands them out from memory (pooled-lo), so the ids are known before
+ * the insert and Hibernate is free to send the inserts as JDBC batches.
+ * <p>
+ * The block size is the {@value #ALLOCATION_SIZE_SETTING} setting, an entity can override it with the
+ * increment_size parameter. The row of each entity is seeded by {@code IdGeneratorMigration}.
+ */
+public class PooledIdGenerator extends TableGenerator {
+
+    public static final String TABLE_NAME = "id_generator";
+
+    public static final String ALLOCATION_SIZE_SETTING = "id_generator.allocation_size";
+
+    private static final int DEFAULT_ALLOCATION_SIZE = 1_000;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE_SETTING,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+        params.setProperty(TABLE_PARAM, TABLE_NAME);
+        params.putIfAbsent(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, "pooled-lo");
+        super.configure(type, params, serviceRegistry);
+    }
+}
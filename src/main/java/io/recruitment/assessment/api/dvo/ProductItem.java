@@ -1,8 +1,11 @@
 package io.recruitment.assessment.api.dvo;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
+import java.math.BigDecimal;
 
 @Entity
 @Builder
@@ -13,7 +16,9 @@ import javax.persistence.*;
 public class ProductItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "product_item_id")
+    @GenericGenerator(name = "product_item_id", strategy = "io.recruitment.assessment.api.dvo.PooledIdGenerator",
+            parameters = @Parameter(name = "segment_value", value = "product_item"))
     private Long id;
 
     @Column
@@ -22,10 +27,23 @@ public class ProductItem {
     @Column
     private String name;
 
-    @Column
-    private String price;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal price;
 
     @Column
     private Long count;
 
+    /* Units of the count taken from the product inventory, given back when the cart expires. Null on the older items. */
+    @Column
+    private Long reservedCount;
+
+    /* price * count, kept up to date on every count change. */
+    @Column(precision = 19, scale = 2)
+    private BigDecimal lineTotal;
+
+    /* Bumped on every count change, two concurrent increments of the same item cannot both commit. */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 }
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -15,7 +17,9 @@ import javax.persistence.*;
 public class Products {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "products_id")
+    @GenericGenerator(name = "products_id", strategy = "io.recruitment.assessment.api.dvo.PooledIdGenerator",
+            parameters = @Parameter(name = "segment_value", value = "products"))
     private Long id;
 
     @Column
@@ -18,6 +18,7 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import org.springframework.web.servlet.NoHandlerFoundException;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @RestControllerAdvice
@@ -97,6 +98,13 @@ public class ErrorControllerAdvice {
 		return createResponse(HttpStatus.FORBIDDEN, e.getMessage(), "AccessDenied");
 	}
 
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<Error> handleException(RejectedExecutionException e, HttpServletRequest request) {
+		logExceptionTrace(e, request);
+		return createResponse(HttpStatus.SERVICE_UNAVAILABLE,
+				"Server is busy at the moment, kindly try again after some time.", "ServiceUnavailable");
+	}
+
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<Error> handleException(Exception e, HttpServletRequest request) {
 		logExceptionTrace(e, request);
@@ -0,0 +1,236 @@
+package io.recruitment.assessment.api.inventory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.recruitment.assessment.api.config.InventoryProperties;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reserves the inventory of the products added to the carts, so a product is never sold beyond its inventory.
+ * The products without inventory are not limited.
+ * <p>
+ * The inventory column holds the units neither sold nor leased. Every instance leases a few units per product ahead
+ * of time with a conditional update, and serves the next reservations from striped in-memory counters, so the
+ * reservations of a hot product neither queue on its row lock nor contend on a single counter. A lease is only
+ * credited once the transaction taking it commits, and a reservation rolled back goes back to the lease.
+ * The leased units are returned on shutdown and when the inventory is set again, after a crash they stay unsold:
+ * the inventory can be undersold by at most the lease size per product, never oversold.
+ */
+@Slf4j
+@Component
+public class InventoryReservations {
+
+    private final ProductRepository productRepository;
+
+    private final InventoryProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, StockLease> leases = new ConcurrentHashMap<>();
+
+    public InventoryReservations(ProductRepository productRepository, InventoryProperties properties, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("inventory.leased", this, InventoryReservations::getLeasedUnits)
+                .description("Units leased from the database and not reserved yet").register(meterRegistry);
+    }
+
+    /**
+     * Reserves the units within the current transaction, they are given back when it rolls back. Within a
+     * transaction scope without a database transaction, they go back to the lease.
+     *
+     * @return the units reserved, 0 when the inventory of the product is not tracked.
+     * @throws CustomBusinessException when the product has not that many units left.
+     */
+    public long reserve(Products products, long units) {
+        if (!properties.isEnabled() || products.getInventory() == null || units <= 0) {
+            return 0;
+        }
+        StockLease lease = leases.computeIfAbsent(products.getId(), productId -> new StockLease(properties.getStripes()));
+        if (lease.take(units)) {
+            afterCompletion(() -> {
+            }, () -> lease.put(units));
+            return units;
+        }
+
+        /* Without a database transaction the units taken are committed already, a rollback keeps them in the lease. */
+        boolean transactional = TransactionSynchronizationManager.isActualTransactionActive();
+        long leaseSize = properties.getLeaseSize();
+        if (leaseSize > 0 && productRepository.takeInventory(products.getId(), units + leaseSize) == 1) {
+            meterRegistry.counter("inventory.leases", "outcome", "granted").increment();
+            afterCompletion(() -> lease.put(leaseSize), () -> {
+                if (!transactional) {
+                    lease.put(leaseSize + units);
+                }
+            });
+            return units;
+        }
+        /* Fewer units left than a whole lease, the last ones are taken one reservation at a time. */
+        if (productRepository.takeInventory(products.getId(), units) == 1) {
+            if (!transactional) {
+                afterCompletion(() -> {
+                }, () -> lease.put(units));
+            }
+            return units;
+        }
+        if (lease.takeAll(units)) {
+            afterCompletion(() -> {
+            }, () -> lease.put(units));
+            return units;
+        }
+        meterRegistry.counter("inventory.leases", "outcome", "insufficient").increment();
+        log.info("Insufficient inventory for productId={}, units={}", products.getId(), units);
+        throw new CustomBusinessException(HttpStatus.CONFLICT, "InsufficientInventoryError",
+                "Requested count of the product " + products.getId() + " is not available.");
+    }
+
+    /**
+     * Puts the units reserved by a cart back into the inventory, within the current transaction.
+     */
+    public void release(Long productId, long units) {
+        if (units > 0) {
+            productRepository.returnInventory(productId, units);
+        }
+    }
+
+    /**
+     * The inventory set through the admin APIs holds the units neither sold nor leased, the units left in the lease
+     * are returned on top of it, unless the product is not limited anymore.
+     */
+    public void productUpdated(Long productId) {
+        StockLease lease = leases.remove(productId);
+        if (lease == null) {
+            return;
+        }
+        long units = lease.drain();
+        try {
+            release(productId, units);
+        } catch (RuntimeException e) {
+            log.warn("Unable to return {} leased units of productId={}, error={}", units, productId, e.getMessage());
+        }
+    }
+
+    /**
+     * The units left in the lease of a deleted product have no row to go back to, the lease is only dropped.
+     */
+    public void productDeleted(Long productId) {
+        leases.remove(productId);
+    }
+
+    public long getLeasedUnits() {
+        return leases.values().stream().mapToLong(StockLease::available).sum();
+    }
+
+    @PreDestroy
+    public void returnLeases() {
+        leases.forEach((productId, lease) -> {
+            long units = lease.drain();
+            try {
+                release(productId, units);
+            } catch (RuntimeException e) {
+                log.warn("Unable to return {} leased units of productId={}, error={}", units, productId, e.getMessage());
+            }
+        });
+        leases.clear();
+    }
+
+    /* Without a transaction, as in the unit tests, everything counts as committed right away. */
+    private static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                /* An unknown outcome is neither credited nor given back, the units may stay unsold but never oversold. */
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else if (status == STATUS_ROLLED_BACK) {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Units leased for one product, spread over a few counters, each thread starting with its own one.
+     */
+    static final class StockLease {
+
+        private final AtomicLong[] stripes;
+
+        StockLease(int stripes) {
+            this.stripes = new AtomicLong[Math.max(1, stripes)];
+            for (int i = 0; i < this.stripes.length; i++) {
+                this.stripes[i] = new AtomicLong();
+            }
+        }
+
+        boolean take(long units) {
+            int start = stripe();
+            for (int i = 0; i < stripes.length; i++) {
+                AtomicLong stripe = stripes[(start + i) % stripes.length];
+                long available;
+                while ((available = stripe.get()) >= units) {
+                    if (stripe.compareAndSet(available, available - units)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Same as {@link #take(long)} for a reservation larger than what any single counter holds.
+         */
+        synchronized boolean takeAll(long units) {
+            long available = drain();
+            if (available >= units) {
+                put(available - units);
+                return true;
+            }
+            put(available);
+            return false;
+        }
+
+        void put(long units) {
+            if (units > 0) {
+                stripes[stripe()].addAndGet(units);
+            }
+        }
+
+        long drain() {
+            long drained = 0;
+            for (AtomicLong stripe : stripes) {
+                drained += stripe.getAndSet(0);
+            }
+            return drained;
+        }
+
+        long available() {
+            long available = 0;
+            for (AtomicLong stripe : stripes) {
+                available += stripe.get();
+            }
+            return available;
+        }
+
+        private int stripe() {
+            return (int) (Thread.currentThread().getId() % stripes.length);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.recruitment.assessment.api.metrics;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL work done on behalf of one HTTP request: the statements prepared, the entities loaded and the time spent
+ * executing statements in JDBC. The statistics of the request are bound to the threads working for it, the request
+ * thread and, through {@link #propagation()}, the executor threads running its tasks.
+ */
+public final class RequestSqlStatistics {
+
+    private static final ThreadLocal<RequestSqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder statements = new LongAdder();
+
+    private final LongAdder entitiesLoaded = new LongAdder();
+
+    private final LongAdder jdbcNanos = new LongAdder();
+
+    /**
+     * @return the statistics of the request the current thread works for, null outside of a request.
+     */
+    public static RequestSqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the statistics to the current thread.
+     *
+     * @return the statistics previously bound, to be restored once done.
+     */
+    static RequestSqlStatistics bind(RequestSqlStatistics statistics) {
+        RequestSqlStatistics previous = CURRENT.get();
+        if (statistics == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(statistics);
+        }
+        return previous;
+    }
+
+    /**
+     * @return a task decorator binding the statistics of the submitting thread to the thread running the task.
+     */
+    public static TaskDecorator propagation() {
+        return task -> {
+            RequestSqlStatistics statistics = CURRENT.get();
+            if (statistics == null) {
+                return task;
+            }
+            return () -> {
+                RequestSqlStatistics previous = bind(statistics);
+                try {
+                    task.run();
+                } finally {
+                    bind(previous);
+                }
+            };
+        };
+    }
+
+    void statementPrepared() {
+        statements.increment();
+    }
+
+    void entityLoaded() {
+        entitiesLoaded.increment();
+    }
+
+    void jdbcExecuted(long nanos) {
+        jdbcNanos.add(nanos);
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded.sum();
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos.sum();
+    }
+}
@@ -0,0 +1,80 @@
+package io.recruitment.assessment.api.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.recruitment.assessment.api.config.SqlStatisticsProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the {@link RequestSqlStatistics} of every HTTP request and publishes them once the request is complete,
+ * after its async dispatch for the APIs returning a future. The statements of a request are checked against its
+ * budget from {@link SqlStatisticsProperties#getBudgets()}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    static final String STATISTICS_ATTRIBUTE = RequestSqlStatistics.class.getName();
+
+    private final MeterRegistry meterRegistry;
+
+    private final SqlStatisticsProperties properties;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlStatistics statistics = (RequestSqlStatistics) request.getAttribute(STATISTICS_ATTRIBUTE);
+        if (statistics == null) {
+            statistics = new RequestSqlStatistics();
+            request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+        }
+        RequestSqlStatistics previous = RequestSqlStatistics.bind(statistics);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlStatistics.bind(previous);
+        }
+        if (!isAsyncStarted(request)) {
+            publish(request, statistics);
+        }
+    }
+
+    private void publish(HttpServletRequest request, RequestSqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern == null ? "UNKNOWN" : pattern);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern == null ? "UNKNOWN" : pattern.toString());
+        DistributionSummary.builder("http.server.sql.statements").tags(tags).register(meterRegistry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("http.server.sql.entities").tags(tags).register(meterRegistry)
+                .record(statistics.getEntitiesLoaded());
+        meterRegistry.timer("http.server.sql.time", tags).record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        Integer budget = properties.getBudgets().get(endpoint);
+        if (budget != null && statistics.getStatements() > budget) {
+            meterRegistry.counter("http.server.sql.budget.exceeded", tags).increment();
+            log.warn("{} issued {} statements, over its budget of {}", endpoint, statistics.getStatements(), budget);
+            if (properties.isFailOnBudgetExceeded()) {
+                throw new IllegalStateException(endpoint + " issued " + statistics.getStatements()
+                        + " statements, over its budget of " + budget);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.recruitment.assessment.api.metrics;
+
+import io.recruitment.assessment.api.config.SqlStatisticsProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Reports the SQL work of the request in the response headers, when enabled outside of production.
+ * The headers are written with the response body, the work being complete by then, so the responses
+ * without a body have none.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class SqlStatisticsHeadersAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+
+    public static final String ENTITIES_HEADER = "X-SQL-Entities";
+
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    private final SqlStatisticsProperties properties;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isExposeHeaders();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest) {
+            RequestSqlStatistics statistics = (RequestSqlStatistics) ((ServletServerHttpRequest) request).getServletRequest()
+                    .getAttribute(SqlStatisticsFilter.STATISTICS_ATTRIBUTE);
+            if (statistics != null) {
+                response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(statistics.getStatements()));
+                response.getHeaders().set(ENTITIES_HEADER, String.valueOf(statistics.getEntitiesLoaded()));
+                response.getHeaders().set(TIME_HEADER, String.valueOf(statistics.getJdbcNanos() / 1_000_000));
+            }
+        }
+        return body;
+    }
+}
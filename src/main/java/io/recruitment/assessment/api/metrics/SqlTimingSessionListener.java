@@ -0,0 +1,36 @@
+package io.recruitment.assessment.api.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time spent executing JDBC statements and batches to the {@link RequestSqlStatistics} of the current
+ * request. Hibernate creates one listener per session, and a session is only used by one thread at a time.
+ */
+public class SqlTimingSessionListener extends BaseSessionEventListener {
+
+    private long executionStart = -1;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestSqlStatistics statistics = RequestSqlStatistics.current();
+        if (statistics != null && executionStart != -1) {
+            statistics.jdbcExecuted(System.nanoTime() - executionStart);
+        }
+        executionStart = -1;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcExecuteStatementStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcExecuteStatementEnd();
+    }
+}
@@ -0,0 +1,109 @@
+package io.recruitment.assessment.api.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every stage of a request: the API delegates, the business validators and the repositories, as the
+ * {@value #TIMER} timer tagged by stage, component and method. A failed call is tagged with the code of its
+ * {@link CustomBusinessException}, or the name of any other exception.
+ * <p>
+ * The delegates are timed until their future completes, not until they return it.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class StageTimingAspect {
+
+    public static final String TIMER = "api.stage";
+
+    private static final String BASE_PACKAGE = "io.recruitment.assessment";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, String> componentNames = new ConcurrentHashMap<>();
+
+    @Around("execution(public * io.recruitment.assessment.gen.api.*ApiDelegate+.*(..)) && !execution(* getRequest())")
+    public Object timeDelegate(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("delegate", joinPoint);
+    }
+
+    @Around("execution(public * io.recruitment.assessment.api.validator..*(..))")
+    public Object timeValidator(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("validator", joinPoint);
+    }
+
+    @Around("execution(* io.recruitment.assessment.api.repository.*Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("repository", joinPoint);
+    }
+
+    private Object time(String stage, ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            record(stage, joinPoint, start, e);
+            throw e;
+        }
+        if (result instanceof CompletableFuture) {
+            /* The future handed to the caller is left untouched, the timer only watches it. */
+            ((CompletableFuture<?>) result).whenComplete((value, error) -> record(stage, joinPoint, start, error));
+        } else {
+            record(stage, joinPoint, start, null);
+        }
+        return result;
+    }
+
+    private void record(String stage, ProceedingJoinPoint joinPoint, long start, Throwable error) {
+        Timer.builder(TIMER)
+                .tag("stage", stage)
+                .tag("component", componentName(joinPoint))
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("outcome", error == null ? "success" : "error")
+                .tag("error", errorTag(error))
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /* The interface of the application the component implements, so a repository is not named after its proxy. */
+    private String componentName(ProceedingJoinPoint joinPoint) {
+        Class<?> targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        return componentNames.computeIfAbsent(targetClass, type -> {
+            for (Class<?> implemented : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+                if (implemented.getName().startsWith(BASE_PACKAGE)) {
+                    return implemented.getSimpleName();
+                }
+            }
+            return ClassUtils.getUserClass(type).getSimpleName();
+        });
+    }
+
+    private static String errorTag(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error == null) {
+            return "none";
+        }
+        if (error instanceof CustomBusinessException) {
+            return ((CustomBusinessException) error).getCode();
+        }
+        return error.getClass().getSimpleName();
+    }
+}
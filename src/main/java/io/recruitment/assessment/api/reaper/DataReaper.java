@@ -0,0 +1,162 @@
+package io.recruitment.assessment.api.reaper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.recruitment.assessment.api.cache.OrderSummaryCache;
+import io.recruitment.assessment.api.config.IdempotencyProperties;
+import io.recruitment.assessment.api.config.ReaperProperties;
+import io.recruitment.assessment.api.inventory.InventoryReservations;
+import io.recruitment.assessment.api.repository.IdempotencyRepository;
+import io.recruitment.assessment.api.repository.NewsRepository;
+import io.recruitment.assessment.api.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the tables which only ever grow bounded: the news past their retention after expiry, the carts not changed
+ * for the cart retention, and the idempotency keys past their ttl are deleted in the background. The inventory
+ * reserved by the deleted carts is given back.
+ * <p>
+ * Every table is purged by chunks: the ids of a chunk are selected, then deleted by id, with a pause between the
+ * chunks, so no delete scans the whole table or holds its locks for long. The rows deleted and the time spent are
+ * published as the reaper.deleted and reaper.run meters, tagged by table.
+ */
+@Slf4j
+@Component
+public class DataReaper {
+
+    private final NewsRepository newsRepository;
+
+    private final OrderRepository orderRepository;
+
+    private final IdempotencyRepository idempotencyRepository;
+
+    private final OrderSummaryCache orderSummaryCache;
+
+    private final InventoryReservations inventoryReservations;
+
+    private final ReaperProperties properties;
+
+    private final IdempotencyProperties idempotencyProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    public DataReaper(NewsRepository newsRepository, OrderRepository orderRepository, IdempotencyRepository idempotencyRepository,
+                      OrderSummaryCache orderSummaryCache, InventoryReservations inventoryReservations, ReaperProperties properties,
+                      IdempotencyProperties idempotencyProperties, PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry) {
+        this.newsRepository = newsRepository;
+        this.orderRepository = orderRepository;
+        this.idempotencyRepository = idempotencyRepository;
+        this.orderSummaryCache = orderSummaryCache;
+        this.inventoryReservations = inventoryReservations;
+        this.properties = properties;
+        this.idempotencyProperties = idempotencyProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(initialDelayString = "${reaper.interval:PT10M}", fixedDelayString = "${reaper.interval:PT10M}")
+    public void reap() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        purgeExpiredNews();
+        purgeAbandonedCarts();
+        purgeExpiredIdempotencyKeys();
+    }
+
+    public long purgeExpiredNews() {
+        Timestamp cutoff = cutoff(properties.getNewsRetention());
+        return purge("news", cutoff,
+                () -> newsRepository.findIdsExpiredBefore(cutoff, firstChunk()),
+                newsRepository::deleteByIds);
+    }
+
+    public long purgeAbandonedCarts() {
+        Timestamp cutoff = cutoff(properties.getCartRetention());
+        return purge("carts", cutoff,
+                () -> orderRepository.findIdsUntouchedSince(cutoff, firstChunk()),
+                orderIds -> {
+                    /*
+                     * The carts still untouched are locked, a cart changed since its id was selected is kept, and the
+                     * inventory reserved by the locked ones is given back along with their deletion.
+                     */
+                    Integer deleted = transactionTemplate.execute(status -> {
+                        List<String> untouchedIds = orderRepository.lockUntouchedOrders(orderIds, cutoff);
+                        if (untouchedIds.isEmpty()) {
+                            return 0;
+                        }
+                        for (Object[] reserved : orderRepository.sumReservedCounts(untouchedIds)) {
+                            inventoryReservations.release(((Number) reserved[0]).longValue(), ((Number) reserved[1]).longValue());
+                        }
+                        orderRepository.deleteItemsOfUntouchedOrders(untouchedIds, cutoff);
+                        return orderRepository.deleteUntouchedOrders(untouchedIds, cutoff);
+                    });
+                    orderIds.forEach(orderSummaryCache::invalidate);
+                    return deleted;
+                });
+    }
+
+    public long purgeExpiredIdempotencyKeys() {
+        Timestamp cutoff = cutoff(idempotencyProperties.getTtl());
+        return purge("idempotency", cutoff,
+                () -> idempotencyRepository.findIdsCreatedBefore(cutoff, firstChunk()),
+                idempotencyRepository::deleteByIds);
+    }
+
+    private <ID> long purge(String table, Timestamp cutoff, Supplier<List<ID>> nextChunk, Function<List<ID>, Integer> delete) {
+        Counter deletedCounter = meterRegistry.counter("reaper.deleted", "table", table);
+        Timer runTimer = meterRegistry.timer("reaper.run", "table", table);
+        long start = System.nanoTime();
+        long deleted = 0;
+        try {
+            while (true) {
+                List<ID> ids = nextChunk.get();
+                if (ids.isEmpty()) {
+                    break;
+                }
+                int chunkDeleted = delete.apply(ids);
+                deleted += chunkDeleted;
+                deletedCounter.increment(chunkDeleted);
+                /* A short chunk was the last one, and a chunk deleting nothing would be selected again forever. */
+                if (ids.size() < properties.getChunkSize() || chunkDeleted == 0) {
+                    break;
+                }
+                Thread.sleep(properties.getChunkPause().toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Purge of {} interrupted after {} rows", table, deleted);
+        } catch (RuntimeException e) {
+            /* The chunks already deleted stay deleted, the next run carries on from there. */
+            log.warn("Purge of {} failed after {} rows, error={}", table, deleted, e.getMessage());
+        } finally {
+            runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        log.info("Purged {} rows of {} older than {}", deleted, table, cutoff);
+        return deleted;
+    }
+
+    private PageRequest firstChunk() {
+        return PageRequest.of(0, properties.getChunkSize());
+    }
+
+    private static Timestamp cutoff(Duration retention) {
+        return new Timestamp(System.currentTimeMillis() - retention.toMillis());
+    }
+}
@@ -0,0 +1,55 @@
+package io.recruitment.assessment.api.repository;
+
+import io.recruitment.assessment.api.dvo.PooledIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+
+/**
+ * Seeds the id_generator table for the tables whose ids used to come from AUTO_INCREMENT, so the
+ * {@link PooledIdGenerator} starts after the ids already in use instead of at 1.
+ * A segment is only seeded while it does not exist yet, afterwards the generator owns it.
+ */
+@Slf4j
+@Component
+public class IdGeneratorMigration {
+
+    /* Segment of the id_generator table, by the table it allocates the ids of. */
+    private static final Map<String, String> SEGMENTS = Map.of(
+            "products", "products",
+            "news", "news",
+            "product_item", "product_item");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /* The schema, id_generator included, is only up to date once the entity manager factory is built. */
+    public IdGeneratorMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        SEGMENTS.forEach(this::seed);
+    }
+
+    private void seed(String tableName, String segmentValue) {
+        Integer seeded = jdbcTemplate.queryForObject(
+                "select count(*) from " + PooledIdGenerator.TABLE_NAME + " where sequence_name = ?", Integer.class, segmentValue);
+        if (seeded != null && seeded > 0) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + tableName, Long.class);
+        try {
+            jdbcTemplate.update("insert into " + PooledIdGenerator.TABLE_NAME + " (sequence_name, next_val) values (?, ?)", segmentValue, maxId + 1);
+            log.info("Seeded the {} ids, next id {}", segmentValue, maxId + 1);
+        } catch (DuplicateKeyException e) {
+            /* Another instance started at the same time and seeded it first. */
+            log.info("The {} ids have already been seeded", segmentValue);
+        }
+    }
+}
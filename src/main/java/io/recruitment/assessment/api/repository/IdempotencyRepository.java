@@ -1,10 +1,59 @@
 package io.recruitment.assessment.api.repository;
 
 import io.recruitment.assessment.api.dvo.Idempotency;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface IdempotencyRepository extends PagingAndSortingRepository<Idempotency, String> {
 
+    /**
+     * Inserts the key in a single statement, a concurrent insert of the same key is ignored by the database.
+     *
+     * @return 1 when the key has been inserted, 0 when it already exists.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO idempotency (id, create_date) VALUES (:id, :createDate)", nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id, @Param("createDate") Timestamp createDate);
+
+    @Transactional
+    @Modifying
+    @Query("update Idempotency i set i.responseStatus = :responseStatus, i.responseBody = :responseBody where i.id = :id")
+    int storeResponse(@Param("id") String id, @Param("responseStatus") Integer responseStatus,
+                      @Param("responseBody") byte[] responseBody);
+
+    /**
+     * Takes over a key whose request has not stored its response since before the lease expired, a concurrent retry
+     * taking it over first is not matched anymore.
+     *
+     * @return 1 when the key has been taken over, 0 otherwise.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Idempotency i set i.createDate = :now where i.id = :id and i.responseStatus is null and i.createDate < :leaseExpiry")
+    int reclaimKey(@Param("id") String id, @Param("leaseExpiry") Timestamp leaseExpiry, @Param("now") Timestamp now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Idempotency i where i.id = :id")
+    int deleteKey(@Param("id") String id);
+
+    @Query("select i.id from Idempotency i where i.createDate < :cutoff or i.createDate is null")
+    List<String> findIdsCreatedBefore(@Param("cutoff") Timestamp cutoff, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Idempotency i where i.id in :ids")
+    int deleteByIds(@Param("ids") Collection<String> ids);
+
 }
@@ -1,10 +1,44 @@
 package io.recruitment.assessment.api.repository;
 
 import io.recruitment.assessment.api.dvo.News;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface NewsRepository extends PagingAndSortingRepository<News, Long> {
 
+    /**
+     * Same as {@link #findAll(Pageable)} without the count query of a Page.
+     */
+    Slice<News> findAllBy(Pageable pageable);
+
+    Slice<News> findByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * The news which have not expired at the given time, served by the expiry date index.
+     */
+    List<News> findByExpiryDateAfter(Timestamp now);
+
+    Slice<News> findByExpiryDateAfter(Timestamp now, Pageable pageable);
+
+    Slice<News> findByExpiryDateAfterAndIdGreaterThan(Timestamp now, Long id, Pageable pageable);
+
+    @Query("select n.id from News n where n.expiryDate < :cutoff")
+    List<Long> findIdsExpiredBefore(@Param("cutoff") Timestamp cutoff, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from News n where n.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
 }
@@ -1,10 +1,68 @@
 package io.recruitment.assessment.api.repository;
 
 import io.recruitment.assessment.api.dvo.OrderDetails;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends PagingAndSortingRepository<OrderDetails, String> {
+public interface OrderRepository extends PagingAndSortingRepository<OrderDetails, String>, OrderVersions {
+
+    /**
+     * Loads the order together with all its product items in a single select.
+     */
+    @Query("select distinct o from OrderDetails o left join fetch o.productItems where o.id = :id")
+    Optional<OrderDetails> findWithItemsById(@Param("id") String id);
+
+    /**
+     * Same as {@link #findWithItemsById(String)} for many orders at once.
+     */
+    @Query("select distinct o from OrderDetails o left join fetch o.productItems where o.id in :ids")
+    List<OrderDetails> findWithItemsByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * The orders neither created nor changed since the cutoff, the legacy orders without update date by their creation.
+     */
+    @Query("select o.id from OrderDetails o where coalesce(o.updateDate, o.createDate) < :cutoff")
+    List<String> findIdsUntouchedSince(@Param("cutoff") Timestamp cutoff, Pageable pageable);
+
+    /**
+     * Locks the given orders which are still untouched since the cutoff, until the end of the transaction.
+     *
+     * @return the ids of the orders locked.
+     */
+    @Query(value = "SELECT o.id FROM order_details o WHERE o.id IN (:ids) AND COALESCE(o.update_date, o.create_date) < :cutoff"
+            + " FOR UPDATE", nativeQuery = true)
+    List<String> lockUntouchedOrders(@Param("ids") Collection<String> ids, @Param("cutoff") Timestamp cutoff);
+
+    /**
+     * The inventory units reserved by the items of the given orders, as product id and units pairs.
+     */
+    @Query(value = "SELECT p.product_id, SUM(p.reserved_count) FROM product_item p WHERE p.default_order_id IN (:ids)"
+            + " AND p.reserved_count > 0 GROUP BY p.product_id", nativeQuery = true)
+    List<Object[]> sumReservedCounts(@Param("ids") Collection<String> ids);
+
+    /**
+     * Deletes the items of the given orders which are still untouched since the cutoff, ahead of the orders themselves.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM product_item WHERE default_order_id IN (SELECT o.id FROM order_details o"
+            + " WHERE o.id IN (:ids) AND COALESCE(o.update_date, o.create_date) < :cutoff)", nativeQuery = true)
+    int deleteItemsOfUntouchedOrders(@Param("ids") Collection<String> ids, @Param("cutoff") Timestamp cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OrderDetails o where o.id in :ids and coalesce(o.updateDate, o.createDate) < :cutoff")
+    int deleteUntouchedOrders(@Param("ids") Collection<String> ids, @Param("cutoff") Timestamp cutoff);
 
 }
@@ -0,0 +1,27 @@
+package io.recruitment.assessment.api.repository;
+
+import io.recruitment.assessment.api.dvo.OrderDetails;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Statements on the order versions which Spring Data cannot derive, implemented by {@link OrderVersionsImpl}.
+ */
+public interface OrderVersions {
+
+    /**
+     * Moves the version of the orders up to the version of their copy in memory, once the copies have been written,
+     * in a single batch. Has to be called within a transaction.
+     *
+     * @param versions the version of every order, by its id.
+     */
+    void advanceVersions(Map<String, Long> versions);
+
+    /**
+     * Loads the order together with all its product items for a cart update. The version of the order alone is
+     * incremented on commit, even when only its items have changed, so that every state of the cart has its own
+     * version. Has to be called within a transaction.
+     */
+    Optional<OrderDetails> findForUpdateById(String id);
+}
@@ -0,0 +1,50 @@
+package io.recruitment.assessment.api.repository;
+
+import io.recruitment.assessment.api.dvo.OrderDetails;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class OrderVersionsImpl implements OrderVersions {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OrderVersionsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void advanceVersions(Map<String, Long> versions) {
+        if (versions.isEmpty()) {
+            return;
+        }
+        /* The orders saved in the same transaction are written first, bumping their version once. */
+        entityManager.flush();
+        List<Object[]> arguments = new ArrayList<>(versions.size());
+        versions.forEach((id, version) -> arguments.add(new Object[]{version, id, version}));
+        jdbcTemplate.batchUpdate("update order_details set version = ? where id = ? and version < ?", arguments);
+    }
+
+    @Override
+    public Optional<OrderDetails> findForUpdateById(String id) {
+        Optional<OrderDetails> order = entityManager
+                .createQuery("select distinct o from OrderDetails o left join fetch o.productItems where o.id = :id",
+                        OrderDetails.class)
+                .setParameter("id", id)
+                .getResultList()
+                .stream()
+                .findFirst();
+        /* Locked after the load, a lock mode on the fetch query would increment the version of every item too. */
+        order.ifPresent(loaded -> entityManager.lock(loaded, LockModeType.OPTIMISTIC_FORCE_INCREMENT));
+        return order;
+    }
+}
@@ -1,15 +1,72 @@
 package io.recruitment.assessment.api.repository;
 
 import io.recruitment.assessment.api.dvo.Products;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface ProductRepository extends PagingAndSortingRepository<Products, Long> {
 
-    Page<Products> findByNameContaining(String name, Pageable var1);
+    /**
+     * Same as {@link #findAll(Pageable)} without the count query of a Page, the listings only need to know
+     * whether there is a next page.
+     */
+    Slice<Products> findAllBy(Pageable pageable);
+
+    Slice<Products> findByNameContaining(String name, Pageable var1);
+
+    Slice<Products> findByIdGreaterThan(Long id, Pageable pageable);
+
+    Slice<Products> findByNameContainingAndIdGreaterThan(String name, Long id, Pageable pageable);
+
+    /**
+     * Streams the whole catalogue in id order through a single database cursor, fetching 1000 rows at a time.
+     * Has to be consumed within a transaction.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select p from Products p order by p.id")
+    Stream<Products> streamAll();
+
+    /**
+     * Updates the details of the product, leaving its inventory as it is, reservations included.
+     *
+     * @return 1 when updated, 0 when the product does not exist.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Products p set p.name = :name, p.description = :description, p.price = :price where p.id = :id")
+    int updateDetails(@Param("id") Long id, @Param("name") String name, @Param("description") String description,
+                      @Param("price") String price);
+
+    /**
+     * Takes the units from the inventory of the product in a single statement, only when that many are left.
+     *
+     * @return 1 when the units have been taken, 0 when the product has not enough inventory, or none tracked.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Products p set p.inventory = p.inventory - :units where p.id = :id and p.inventory >= :units")
+    int takeInventory(@Param("id") Long id, @Param("units") long units);
 
+    /**
+     * Puts the units back into the inventory of the product, unless its inventory is not tracked.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Products p set p.inventory = p.inventory + :units where p.id = :id and p.inventory is not null")
+    int returnInventory(@Param("id") Long id, @Param("units") long units);
 
 }
@@ -0,0 +1,368 @@
+package io.recruitment.assessment.api.search;
+
+import io.recruitment.assessment.api.config.ProductSearchProperties;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory trigram index over the product names, serving the catalogue searches without touching the database.
+ * A search matches the products whose name contains it, ignoring case, the same products as the name LIKE of the
+ * {@link ProductRepository} queries on the MySQL collation. The trigrams of the search narrow down the candidates,
+ * the name of each candidate is then checked, a search shorter than a trigram checks the names of every product.
+ * <p>
+ * The index is built from the {@link ProductRepository} once the application is ready, walking the catalogue by
+ * id, afterwards it is kept up to date by the admin APIs and the imports, and rebuilt periodically for the products
+ * changed through other instances. Writers are serialised, readers never lock.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final int EXACT_SCORE = 3;
+    private static final int WORD_START_SCORE = 2;
+    private static final int CONTAINED_SCORE = 1;
+
+    private final ProductRepository productRepository;
+
+    private final ProductSearchProperties properties;
+
+    private final ConcurrentSkipListMap<Long, IndexedProduct> documents = new ConcurrentSkipListMap<>();
+
+    private final Map<String, NavigableSet<Long>> postings = new ConcurrentHashMap<>();
+
+    /* Products written or deleted while the index is being built, so that the build does not overwrite them. */
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+
+    private boolean loading = false;
+
+    private volatile boolean ready = false;
+
+    public ProductSearchIndex(ProductRepository productRepository, ProductSearchProperties properties) {
+        this.productRepository = productRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * @return true when the searches can be served by the index.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!properties.isEnabled()) {
+            log.info("Product search index is disabled, searches are served by the database.");
+            return;
+        }
+        build();
+    }
+
+    /**
+     * Rebuilds the index from the database, for the products added, updated or deleted through other instances.
+     */
+    @Scheduled(initialDelayString = "${products.search.refresh-interval:PT5M}",
+            fixedDelayString = "${products.search.refresh-interval:PT5M}")
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        build();
+    }
+
+    /**
+     * Walks the catalogue by id, each batch seeking to the last id of the previous one, indexing the products which
+     * differ from their document and dropping the documents of the products not found anymore.
+     */
+    private void build() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            loading = true;
+            changedWhileLoading.clear();
+        }
+        try {
+            Set<Long> found = new HashSet<>();
+            long lastId = 0L;
+            Slice<Products> page;
+            do {
+                page = productRepository.findByIdGreaterThan(lastId, PageRequest.of(0, properties.getLoadBatchSize(), Sort.by("id")));
+                synchronized (this) {
+                    for (Products products : page) {
+                        found.add(products.getId());
+                        /* A product changed since this page was read is indexed already. */
+                        if (!changedWhileLoading.contains(products.getId()) && !isIndexed(products)) {
+                            removeDocument(products.getId());
+                            add(products);
+                        }
+                    }
+                }
+                if (page.hasContent()) {
+                    lastId = page.getContent().get(page.getNumberOfElements() - 1).getId();
+                }
+            } while (page.hasNext());
+
+            synchronized (this) {
+                documents.keySet().removeIf(productId -> !found.contains(productId) && !changedWhileLoading.contains(productId)
+                        && removeTokens(productId));
+                ready = true;
+            }
+        } finally {
+            /* Also on a failed build, or the writes would keep being tracked until the next build succeeds. */
+            synchronized (this) {
+                loading = false;
+                changedWhileLoading.clear();
+            }
+        }
+        log.info("Product search index built with {} products and {} trigrams in {}ms",
+                documents.size(), postings.size(), System.currentTimeMillis() - start);
+    }
+
+    public synchronized void index(Products products) {
+        if (loading) {
+            changedWhileLoading.add(products.getId());
+        }
+        removeDocument(products.getId());
+        add(products);
+    }
+
+    public synchronized void remove(Long productId) {
+        if (loading) {
+            changedWhileLoading.add(productId);
+        }
+        removeDocument(productId);
+    }
+
+    private boolean isIndexed(Products products) {
+        IndexedProduct indexed = documents.get(products.getId());
+        return indexed != null
+                && Objects.equals(indexed.products.getName(), products.getName())
+                && Objects.equals(indexed.products.getDescription(), products.getDescription())
+                && Objects.equals(indexed.products.getPrice(), products.getPrice());
+    }
+
+    private void removeDocument(Long productId) {
+        if (documents.containsKey(productId)) {
+            removeTokens(productId);
+            documents.remove(productId);
+        }
+    }
+
+    /**
+     * Drops the product from the postings of its trigrams, its document is left to the caller.
+     *
+     * @return true, for the use in a removeIf.
+     */
+    private boolean removeTokens(Long productId) {
+        IndexedProduct indexed = documents.get(productId);
+        if (indexed == null) {
+            return true;
+        }
+        for (String gram : indexed.grams) {
+            NavigableSet<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(productId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns one page of the products whose name contains the search.
+     *
+     * @param byRelevance order by relevance instead of product id, a name equal to the search ranks first, then the
+     *                    names with a word starting with it.
+     */
+    public List<Products> search(String searchParam, int pageNo, int pageSize, boolean byRelevance) {
+        String term = normalize(searchParam);
+        Candidates candidates = candidates(term);
+        if (candidates == null || pageSize == 0) {
+            return Collections.emptyList();
+        }
+        long offset = (long) pageNo * pageSize;
+
+        if (!byRelevance) {
+            return walkInIdOrder(candidates.ids(), candidates, term, offset, pageSize);
+        }
+
+        List<ScoredProduct> scored = new ArrayList<>();
+        for (Long id : candidates.ids()) {
+            IndexedProduct indexed = documents.get(id);
+            if (indexed != null && candidates.containedInOthers(id) && indexed.name.contains(term)) {
+                scored.add(new ScoredProduct(indexed.products, indexed.score(term)));
+            }
+        }
+        scored.sort(Comparator.comparingInt(ScoredProduct::getScore).reversed()
+                .thenComparing(scoredProduct -> scoredProduct.products.getId()));
+        List<Products> page = new ArrayList<>(pageSize);
+        for (long i = offset; i < scored.size() && page.size() < pageSize; i++) {
+            page.add(scored.get((int) i).products);
+        }
+        return page;
+    }
+
+    /**
+     * Returns the products whose name contains the search with an id greater than afterId, in id order.
+     * The walk starts right after afterId, however deep in the results it is.
+     */
+    public Slice<Products> searchAfter(String searchParam, long afterId, int pageSize) {
+        PageRequest pageRequest = PageRequest.of(0, pageSize, Sort.by("id"));
+        String term = normalize(searchParam);
+        Candidates candidates = candidates(term);
+        if (candidates == null) {
+            return new SliceImpl<>(Collections.emptyList(), pageRequest, false);
+        }
+        /* One product more than requested tells whether there is a next page. */
+        List<Products> products = walkInIdOrder(candidates.idsAfter(afterId), candidates, term, 0, pageSize + 1);
+        boolean hasNext = products.size() > pageSize;
+        return new SliceImpl<>(hasNext ? products.subList(0, pageSize) : products, pageRequest, hasNext);
+    }
+
+    private void add(Products products) {
+        IndexedProduct indexed = new IndexedProduct(products);
+        documents.put(products.getId(), indexed);
+        for (String gram : indexed.grams) {
+            postings.computeIfAbsent(gram, key -> new ConcurrentSkipListSet<>()).add(products.getId());
+        }
+    }
+
+    /**
+     * @return the postings of the trigrams of the term, the rarest first, all the products for a term shorter than a
+     * trigram, or null when a trigram matches nothing.
+     */
+    private Candidates candidates(String term) {
+        if (term.length() < GRAM_LENGTH) {
+            return new Candidates(documents.keySet(), Collections.emptyList());
+        }
+        List<NavigableSet<Long>> matches = new ArrayList<>();
+        for (String gram : grams(term)) {
+            NavigableSet<Long> ids = postings.get(gram);
+            if (ids == null || ids.isEmpty()) {
+                return null;
+            }
+            matches.add(ids);
+        }
+        /* Walking the rarest trigram first keeps the intersection as small as possible, nothing is copied. */
+        matches.sort(Comparator.comparingInt(Set::size));
+        return new Candidates(matches.get(0), matches.subList(1, matches.size()));
+    }
+
+    /* Ids are walked in ascending order, so the walk stops as soon as the page is complete. */
+    private List<Products> walkInIdOrder(NavigableSet<Long> ids, Candidates candidates, String term, long offset, int limit) {
+        List<Products> page = new ArrayList<>(limit);
+        long skipped = 0;
+        for (Long id : ids) {
+            if (!candidates.containedInOthers(id)) {
+                continue;
+            }
+            IndexedProduct indexed = documents.get(id);
+            /* The trigrams are found in the name, not necessarily in the order of the term. */
+            if (indexed == null || !indexed.name.contains(term)) {
+                continue;
+            }
+            if (skipped++ < offset) {
+                continue;
+            }
+            page.add(indexed.products);
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static final class Candidates {
+        private final NavigableSet<Long> rarest;
+        private final List<NavigableSet<Long>> others;
+
+        private Candidates(NavigableSet<Long> rarest, List<NavigableSet<Long>> others) {
+            this.rarest = rarest;
+            this.others = others;
+        }
+
+        private NavigableSet<Long> ids() {
+            return rarest;
+        }
+
+        private NavigableSet<Long> idsAfter(long afterId) {
+            return rarest.tailSet(afterId, false);
+        }
+
+        private boolean containedInOthers(Long id) {
+            for (Set<Long> ids : others) {
+                if (!ids.contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class IndexedProduct {
+        private final Products products;
+        private final String name;
+        private final Set<String> grams;
+
+        private IndexedProduct(Products products) {
+            this.products = products;
+            this.name = normalize(products.getName());
+            this.grams = grams(name);
+        }
+
+        private int score(String term) {
+            if (name.equals(term)) {
+                return EXACT_SCORE;
+            }
+            for (int index = name.indexOf(term); index >= 0; index = name.indexOf(term, index + 1)) {
+                if (index == 0 || !Character.isLetterOrDigit(name.charAt(index - 1))) {
+                    return WORD_START_SCORE;
+                }
+            }
+            return CONTAINED_SCORE;
+        }
+    }
+
+    private static final class ScoredProduct {
+        private final Products products;
+        private final int score;
+
+        private ScoredProduct(Products products, int score) {
+            this.products = products;
+            this.score = score;
+        }
+
+        private int getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.recruitment.assessment.api.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+
+import java.util.function.Function;
+
+/**
+ * Cursor mode of the listing APIs: a page is requested by the id it starts after instead of its number,
+ * so the database seeks to it through the primary key whatever the depth of the page.
+ */
+final class CursorPages {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPages() {
+    }
+
+    static PageRequest firstPage(int pageSize) {
+        return PageRequest.of(0, pageSize, Sort.by("id"));
+    }
+
+    /**
+     * @return the headers holding the cursor of the next page, none on the last page.
+     */
+    static <T> HttpHeaders nextCursorHeaders(Slice<T> slice, Function<T, Long> idOf) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext() && slice.hasContent()) {
+            headers.set(NEXT_CURSOR_HEADER, String.valueOf(idOf.apply(slice.getContent().get(slice.getNumberOfElements() - 1))));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,220 @@
+package io.recruitment.assessment.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.recruitment.assessment.api.config.IdempotencyProperties;
+import io.recruitment.assessment.api.dvo.Idempotency;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.repository.IdempotencyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Single entry point for the Idempotency-Key handling of all the write APIs.
+ * Recently seen keys are kept in memory, so a repeated key never reaches the database to be detected,
+ * and the response of every successful request is stored, so a retry gets the original response back
+ * instead of an error.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyRepository idempotencyRepository;
+
+    private final IdempotencyProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Long> recentKeys = new ConcurrentHashMap<>();
+
+    /* All the keys share the same ttl, so the insertion order is also the expiry order. */
+    private final Queue<RecentKey> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Executes the write request once per idempotency key. A repeated key gets the stored response
+     * of the first execution, without executing the request again.
+     *
+     * A key whose first request stored no response within the in-progress lease, the request having crashed, is
+     * taken over by the next retry, which executes the request.
+     *
+     * @throws CustomBusinessException when the key is empty, or when the first request is still in progress
+     *                                  or its response could not be stored.
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey, Class<T> responseType, Supplier<ResponseEntity<T>> request) {
+        if (!registerKey(idempotencyKey)) {
+            Idempotency idempotency = idempotencyRepository.findById(idempotencyKey).orElse(null);
+            if (!reclaimKey(idempotency)) {
+                return replay(idempotencyKey, idempotency, responseType);
+            }
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            /* The request had no effect, the client should be able to fix it and retry with the same key. */
+            releaseKey(idempotencyKey);
+            throw e;
+        }
+        storeResponse(idempotencyKey, response);
+        return response;
+    }
+
+    /**
+     * @return true when the key is new, false when it has already been used.
+     */
+    private boolean registerKey(String idempotencyKey) {
+        if (StringUtils.isBlank(idempotencyKey)) {
+            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Invalid Idempotency Key, should not be empty.");
+        }
+        long now = System.currentTimeMillis();
+        evictKeys(now);
+
+        if (recentKeys.putIfAbsent(idempotencyKey, now) != null) {
+            return false;
+        }
+        insertionOrder.add(new RecentKey(idempotencyKey, now));
+
+        try {
+            /* Used earlier or through another instance when nothing is inserted, it stays in memory for the next retry. */
+            return idempotencyRepository.insertIfAbsent(idempotencyKey, new Timestamp(now)) == 1;
+        } catch (RuntimeException e) {
+            recentKeys.remove(idempotencyKey, now);
+            throw e;
+        }
+    }
+
+    /**
+     * @return true when the key was left in progress past its lease, and has been taken over.
+     */
+    private boolean reclaimKey(Idempotency idempotency) {
+        if (idempotency == null || idempotency.getResponseStatus() != null || idempotency.getCreateDate() == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        Timestamp leaseExpiry = new Timestamp(now - properties.getInProgressLease().toMillis());
+        if (!idempotency.getCreateDate().before(leaseExpiry)
+                || idempotencyRepository.reclaimKey(idempotency.getId(), leaseExpiry, new Timestamp(now)) != 1) {
+            return false;
+        }
+        log.warn("Executing again the request of idempotencyKey={}, left in progress since {}", idempotency.getId(),
+                idempotency.getCreateDate());
+        return true;
+    }
+
+    private void releaseKey(String idempotencyKey) {
+        recentKeys.remove(idempotencyKey);
+        try {
+            idempotencyRepository.deleteKey(idempotencyKey);
+        } catch (RuntimeException e) {
+            log.warn("Unable to release idempotencyKey={}, error={}", idempotencyKey, e.getMessage());
+        }
+    }
+
+    private void storeResponse(String idempotencyKey, ResponseEntity<?> response) {
+        try {
+            byte[] responseBody = compress(response.getBody());
+            if (responseBody.length > properties.getMaxResponseBytes()) {
+                log.info("Response of {} bytes is too large to be replayed, idempotencyKey={}", responseBody.length, idempotencyKey);
+                responseBody = null;
+            }
+            idempotencyRepository.storeResponse(idempotencyKey, response.getStatusCodeValue(), responseBody);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to store the response for idempotencyKey={}, error={}", idempotencyKey, e.getMessage());
+            storeStatus(idempotencyKey, response);
+        }
+    }
+
+    /**
+     * Marks the key as complete without a response to replay, a retry then gets the already exists error rather than
+     * being reported in progress, or executed again once the lease expired although the request succeeded.
+     */
+    private void storeStatus(String idempotencyKey, ResponseEntity<?> response) {
+        try {
+            idempotencyRepository.storeResponse(idempotencyKey, response.getStatusCodeValue(), null);
+        } catch (RuntimeException e) {
+            log.error("Unable to complete idempotencyKey={}, a retry after {} executes the request again, error={}",
+                    idempotencyKey, properties.getInProgressLease(), e.getMessage());
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(String idempotencyKey, Idempotency idempotency, Class<T> responseType) {
+        if (idempotency == null || idempotency.getResponseStatus() == null) {
+            throw new CustomBusinessException(HttpStatus.CONFLICT, "BusinessValidationError", "Invalid Idempotency Key, a request with the same key is still in progress.");
+        }
+        if (idempotency.getResponseBody() == null) {
+            throw duplicateKeyException();
+        }
+        try {
+            T body = decompress(idempotency.getResponseBody(), responseType);
+            log.info("Replaying the stored response for idempotencyKey={}", idempotencyKey);
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(REPLAYED_HEADER, "true");
+            return new ResponseEntity<>(body, headers, HttpStatus.valueOf(idempotency.getResponseStatus()));
+        } catch (IOException e) {
+            log.warn("Unable to read the stored response for idempotencyKey={}, error={}", idempotencyKey, e.getMessage());
+            throw duplicateKeyException();
+        }
+    }
+
+    private byte[] compress(Object body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private <T> T decompress(byte[] body, Class<T> responseType) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return objectMapper.readValue(in, responseType);
+        }
+    }
+
+    private void evictKeys(long now) {
+        long expiredBefore = now - properties.getTtl().toMillis();
+        RecentKey oldest;
+        while ((oldest = insertionOrder.peek()) != null
+                && (oldest.createdAt <= expiredBefore || recentKeys.size() > properties.getMaxCachedKeys())) {
+            RecentKey evicted = insertionOrder.poll();
+            if (evicted != null) {
+                recentKeys.remove(evicted.key, evicted.createdAt);
+            }
+        }
+    }
+
+    private static CustomBusinessException duplicateKeyException() {
+        return new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Invalid Idempotency Key, already exists.");
+    }
+
+    private static final class RecentKey {
+        private final String key;
+        private final long createdAt;
+
+        private RecentKey(String key, long createdAt) {
+            this.key = key;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package io.recruitment.assessment.api.service;
 
+import io.recruitment.assessment.api.cache.ActiveNewsCache;
+import io.recruitment.assessment.api.config.ApiTaskExecutor;
 import io.recruitment.assessment.api.dvo.News;
 import io.recruitment.assessment.api.repository.NewsRepository;
 import io.recruitment.assessment.api.validator.NewsBusinessValidator;
@@ -9,7 +11,9 @@ import io.recruitment.assessment.gen.model.NewsCatalogueResponseData;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -30,51 +34,70 @@ public class NewsManagementServiceImpl implements NewsApiDelegate {
 
     private final NewsBusinessValidator businessValidator;
 
+    private final IdempotencyService idempotencyService;
+
+    private final ApiTaskExecutor apiTaskExecutor;
+
+    private final ActiveNewsCache activeNewsCache;
+
 
     @Override
     public CompletableFuture<ResponseEntity<NewsCatalogueResponseData>> newsApiV1AddPost(String idempotencyKey, AddNewsRequest addNewsRequest) {
-        return CompletableFuture.supplyAsync(() -> {
-            businessValidator.validateNewsCreateRequest(idempotencyKey, addNewsRequest);
+        return apiTaskExecutor.supplyAsync(() -> idempotencyService.execute(idempotencyKey, NewsCatalogueResponseData.class, () -> {
+            businessValidator.validateNewsCreateRequest(addNewsRequest);
             log.info("Request validation completed for add new news information.");
             News news = newsRepository.save(
                     News.builder()
                             .title(addNewsRequest.getTitle())
                             .description(addNewsRequest.getDescription())
-                            .expiryDate(Timestamp.valueOf(addNewsRequest.getExpiryDate().toLocalDateTime()))
+                            .expiryDate(Timestamp.from(addNewsRequest.getExpiryDate().toInstant()))
                             .build());
+            activeNewsCache.newsAdded(news);
             log.info("Saved data to database successfully.");
 
-            return  new ResponseEntity<NewsCatalogueResponseData>(
-                    new NewsCatalogueResponseData()
-                            .newsId(news.getId())
-                            .title(news.getTitle())
-                            .description(news.getDescription())
-                            .expiryDate(news.getExpiryDate().toLocalDateTime().atOffset(UTC)),
-                    HttpStatus.CREATED);
-        });
+            return  new ResponseEntity<NewsCatalogueResponseData>(toNewsCatalogueResponseData(news), HttpStatus.CREATED);
+        }));
     }
 
+    /**
+     * Answered on the request thread once the active news cache is loaded, on a worker reading the database before.
+     */
     @Override
-    public CompletableFuture<ResponseEntity<List<NewsCatalogueResponseData>>> newsApiV1ListGet(Long pageNo, Long pageSize) {
-        return CompletableFuture.supplyAsync(() -> {
-            businessValidator.validateGetNewsListRequest(pageNo, pageSize);
-            List<NewsCatalogueResponseData> dataList = new ArrayList<>();
-            newsRepository.findAll(
-                    PageRequest.of(
-                            pageNo == null ? 0 : pageNo.intValue(),
-                            pageSize == null ? 10 : pageSize.intValue(),
-                            Sort.by("id")))
-                    .forEach(news -> {
-                        dataList.add(new NewsCatalogueResponseData()
-                        .newsId(news.getId())
-                        .title(news.getTitle())
-                        .description(news.getDescription())
-                        .expiryDate(news.getExpiryDate().toLocalDateTime().atOffset(UTC)));
-            });
-            log.info("Fetched all data from database successfully, pageNo={}, pageSize={}", pageNo, pageSize);
-
-            return  new ResponseEntity<List<NewsCatalogueResponseData>>(dataList, HttpStatus.OK);
-        });
+    public CompletableFuture<ResponseEntity<List<NewsCatalogueResponseData>>> newsApiV1ListGet(Long pageNo, Long pageSize, Long afterId) {
+        if (activeNewsCache.isReady()) {
+            return apiTaskExecutor.supplyFromMemory(() -> listNews(pageNo, pageSize, afterId));
+        }
+        return apiTaskExecutor.supplyAsync(() -> listNews(pageNo, pageSize, afterId));
     }
 
+    private ResponseEntity<List<NewsCatalogueResponseData>> listNews(Long pageNo, Long pageSize, Long afterId) {
+        businessValidator.validateGetNewsListRequest(pageNo, pageSize, afterId);
+        int page = pageNo == null ? 0 : pageNo.intValue();
+        int size = pageSize == null ? 10 : pageSize.intValue();
+        Slice<News> slice;
+        if (activeNewsCache.isReady()) {
+            slice = afterId != null ? activeNewsCache.getPageAfter(afterId, size) : activeNewsCache.getPage(page, size);
+        } else {
+            /* Expired news are never listed, the cache only holds the active ones. */
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            slice = afterId != null
+                    ? newsRepository.findByExpiryDateAfterAndIdGreaterThan(now, afterId, CursorPages.firstPage(size))
+                    : newsRepository.findByExpiryDateAfter(now, PageRequest.of(page, size, Sort.by("id")));
+        }
+        List<NewsCatalogueResponseData> dataList = new ArrayList<>();
+        slice.forEach(news -> dataList.add(toNewsCatalogueResponseData(news)));
+        log.info("Fetched the active news successfully, pageNo={}, pageSize={}, afterId={}, fromCache={}",
+                pageNo, pageSize, afterId, activeNewsCache.isReady());
+
+        return  new ResponseEntity<List<NewsCatalogueResponseData>>(dataList,
+                afterId == null ? new HttpHeaders() : CursorPages.nextCursorHeaders(slice, News::getId), HttpStatus.OK);
+    }
+
+    private static NewsCatalogueResponseData toNewsCatalogueResponseData(News news) {
+        return new NewsCatalogueResponseData()
+                .newsId(news.getId())
+                .title(news.getTitle())
+                .description(news.getDescription())
+                .expiryDate(news.getExpiryDate().toInstant().atOffset(UTC));
+    }
 }
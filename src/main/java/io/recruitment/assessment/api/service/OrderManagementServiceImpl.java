@@ -1,13 +1,18 @@
 package io.recruitment.assessment.api.service;
 
+import io.recruitment.assessment.api.cache.OrderSummaryCache;
+import io.recruitment.assessment.api.cache.OrderSummaryCache.OrderSummary;
+import io.recruitment.assessment.api.cache.ProductCatalogueCache;
+import io.recruitment.assessment.api.cart.CartStore;
+import io.recruitment.assessment.api.config.ApiTaskExecutor;
 import io.recruitment.assessment.api.dvo.OrderDetails;
 import io.recruitment.assessment.api.dvo.ProductItem;
 import io.recruitment.assessment.api.dvo.Products;
-import io.recruitment.assessment.api.repository.OrderRepository;
-import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.api.inventory.InventoryReservations;
 import io.recruitment.assessment.api.validator.OrderBusinessValidator;
 import io.recruitment.assessment.gen.api.OrdersApiDelegate;
 import io.recruitment.assessment.gen.model.AddProductRequest;
+import io.recruitment.assessment.gen.model.AddProductsBatchRequest;
 import io.recruitment.assessment.gen.model.ProductItemData;
 import io.recruitment.assessment.gen.model.ShoppingCartData;
 import lombok.RequiredArgsConstructor;
@@ -17,13 +22,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.Timestamp;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static java.time.ZoneOffset.UTC;
 
@@ -32,109 +41,179 @@ import static java.time.ZoneOffset.UTC;
 @RequiredArgsConstructor
 public class OrderManagementServiceImpl implements OrdersApiDelegate {
 
-    private final OrderRepository orderRepository;
+    /* Prices are stored with two decimals, as documented in the API. */
+    private static final int PRICE_SCALE = 2;
 
-    private final ProductRepository productRepository;
+    private final ProductCatalogueCache productCatalogueCache;
+
+    private final OrderSummaryCache orderSummaryCache;
 
     private final OrderBusinessValidator businessValidator;
 
+    private final IdempotencyService idempotencyService;
+
+    private final ApiTaskExecutor apiTaskExecutor;
+
+    private final InventoryReservations inventoryReservations;
+
+    private final CartStore cartStore;
+
 
     @Override
     public CompletableFuture<ResponseEntity<ShoppingCartData>> ordersApiV1CreatePost(String idempotencyKey) {
-        return CompletableFuture.supplyAsync(() -> {
-            businessValidator.validateOrderCreateRequest(idempotencyKey);
-            log.info("Request validation completed for create a new order.");
-            OrderDetails orderDetails = orderRepository.save(OrderDetails.builder()
+        return apiTaskExecutor.supplyAsync(() -> idempotencyService.execute(idempotencyKey, ShoppingCartData.class, () -> {
+            Timestamp now = Timestamp.valueOf(OffsetDateTime.now().toLocalDateTime());
+            OrderDetails orderDetails = OrderDetails.builder()
                     .id(UUID.randomUUID().toString())
-                    .createDate(Timestamp.valueOf(OffsetDateTime.now().toLocalDateTime())).build());
-            log.info("Saved data to database successfully.");
+                    .createDate(now)
+                    .updateDate(now)
+                    .totalPrice(BigDecimal.ZERO).build();
+            orderDetails = cartStore.create(orderDetails);
 
             return new ResponseEntity<ShoppingCartData>(new ShoppingCartData()
                     .orderId(orderDetails.getId())
                     .createdDate(orderDetails.getCreateDate().toLocalDateTime().atOffset(UTC)), HttpStatus.CREATED);
-        });
+        }));
     }
 
     @Override
     public CompletableFuture<ResponseEntity<ShoppingCartData>> ordersApiV1AddOrderIdPut(String idempotencyKey, String orderId, AddProductRequest addProductRequest) {
-        return CompletableFuture.supplyAsync(() -> {
-            businessValidator.validateOrderAddProductRequest(idempotencyKey, orderId, addProductRequest);
+        return apiTaskExecutor.supplyAsync(() -> idempotencyService.execute(idempotencyKey, ShoppingCartData.class, () -> updateCart(orderId, orderDetails -> {
+            Products products = productCatalogueCache.getProduct(addProductRequest.getProductId()).orElse(null);
+            log.info("Fetched product details.");
+            businessValidator.validateOrderAddProductRequest(orderDetails, products, addProductRequest);
             log.info("Request validation completed for add new product to existing order.");
-            OrderDetails orderDetails = orderRepository.findById(orderId).get();
-            log.info("Fetched order details from database.");
-            AtomicBoolean flag = new AtomicBoolean(false);
-            orderDetails.getProductItems().forEach(productItem -> {
-                Products products = productRepository.findById(addProductRequest.getProductId()).get();
-                if (productItem.getProductId().equals(products.getId())) {
-                    log.info("Product already exists in order, incrementing the item count by {}", addProductRequest.getCount());
-                    productItem.setCount(productItem.getCount() + addProductRequest.getCount());
-                    flag.set(true);
-                }
-            });
-            if (!flag.get()) {
-                log.info("New product being added to the order list. productId={}", addProductRequest.getProductId());
-                Products products = productRepository.findById(addProductRequest.getProductId()).get();
-
-                orderDetails.getProductItems().add(
-                        ProductItem.builder()
-                                .productId(products.getId())
-                                .name(products.getName())
-                                .price(products.getPrice())
-                                .count(addProductRequest.getCount())
-                                .build());
-            }
+            ensureTotals(orderDetails);
+
+            Map<Long, ProductItem> itemsByProductId = orderDetails.getProductItems().stream()
+                    .collect(Collectors.toMap(ProductItem::getProductId, Function.identity(), (first, second) -> first));
+            long count = countOf(addProductRequest);
+            long reserved = inventoryReservations.reserve(products, count);
+            addProductItem(orderDetails, itemsByProductId, products, count, reserved);
+        })));
+    }
 
-            orderRepository.save(orderDetails);
-            log.info("Saved data to database successfully.");
-
-            List<ProductItemData> items = new ArrayList<>();
-            final BigDecimal[] totalPrice = {BigDecimal.ZERO};
-            orderDetails.getProductItems().forEach(productItem -> {
-                BigDecimal price = new BigDecimal(productItem.getPrice());
-                BigDecimal totalItemPrice = price.multiply(BigDecimal.valueOf(productItem.getCount()));
-                totalPrice[0] = totalPrice[0].add(totalItemPrice);
-                items.add(new ProductItemData()
-                        .productId(productItem.getProductId())
-                        .name(productItem.getName())
-                        .price(productItem.getPrice())
-                        .count(productItem.getCount())
-                        .totalItemPrice(String.valueOf(totalItemPrice)));
+    @Override
+    public CompletableFuture<ResponseEntity<ShoppingCartData>> ordersApiV1AddBatchOrderIdPut(String idempotencyKey, String orderId, AddProductsBatchRequest addProductsBatchRequest) {
+        return apiTaskExecutor.supplyAsync(() -> idempotencyService.execute(idempotencyKey, ShoppingCartData.class, () -> updateCart(orderId, orderDetails -> {
+            Map<Long, Products> productsById = productCatalogueCache.getProducts(addProductsBatchRequest.getItems().stream()
+                    .map(AddProductRequest::getProductId)
+                    .collect(Collectors.toSet()));
+            log.info("Fetched {} products.", productsById.size());
+            businessValidator.validateOrderAddProductsBatchRequest(orderDetails, productsById, addProductsBatchRequest);
+            log.info("Request validation completed for add {} products to existing order.", addProductsBatchRequest.getItems().size());
+            ensureTotals(orderDetails);
+
+            Map<Long, ProductItem> itemsByProductId = orderDetails.getProductItems().stream()
+                    .collect(Collectors.toMap(ProductItem::getProductId, Function.identity(), (first, second) -> first));
+            addProductsBatchRequest.getItems().forEach(addProductRequest -> {
+                Products products = productsById.get(addProductRequest.getProductId());
+                long count = countOf(addProductRequest);
+                long reserved = inventoryReservations.reserve(products, count);
+                addProductItem(orderDetails, itemsByProductId, products, count, reserved);
             });
-            log.info("Calculated the total price for the order, totalPrice={}", totalPrice[0]);
-            return new ResponseEntity<ShoppingCartData>(new ShoppingCartData()
-                    .orderId(orderDetails.getId())
-                    .createdDate(orderDetails.getCreateDate().toLocalDateTime().atOffset(UTC))
-                    .items(items).totalPrice(String.valueOf(totalPrice[0])),
-                    HttpStatus.CREATED);
-        });
+        })));
     }
 
     @Override
-    public CompletableFuture<ResponseEntity<ShoppingCartData>> ordersApiV1SummaryOrderIdGet(String orderId) {
-        return CompletableFuture.supplyAsync(() -> {
-            businessValidator.validateGetOrderSummaryRequest(orderId);
+    public CompletableFuture<ResponseEntity<ShoppingCartData>> ordersApiV1SummaryOrderIdGet(String orderId, String ifNoneMatch) {
+        OrderSummary cached = orderSummaryCache.get(orderId);
+        if (cached != null) {
+            log.info("Serving the cached order summary, orderId={}", orderId);
+            return apiTaskExecutor.supplyFromMemory(() -> toSummaryResponse(cached, ifNoneMatch));
+        }
+        return apiTaskExecutor.supplyAsync(() -> {
+            OrderDetails orderDetails = cartStore.get(orderId);
+            businessValidator.validateGetOrderSummaryRequest(orderDetails);
             log.info("Request validation completed for get order summary.");
-            OrderDetails orderDetails = orderRepository.findById(orderId).get();
-
-            List<ProductItemData> items = new ArrayList<>();
-            final BigDecimal[] totalPrice = {BigDecimal.ZERO};
-            orderDetails.getProductItems().forEach(productItem -> {
-                BigDecimal price = new BigDecimal(productItem.getPrice());
-                BigDecimal totalItemPrice = price.multiply(BigDecimal.valueOf(productItem.getCount()));
-                totalPrice[0] = totalPrice[0].add(totalItemPrice);
-                items.add(new ProductItemData()
-                        .productId(productItem.getProductId())
-                        .name(productItem.getName())
-                        .price(productItem.getPrice())
-                        .count(productItem.getCount())
-                        .totalItemPrice(String.valueOf(totalItemPrice)));
-            });
-            log.info("Calculated the total price for the order, totalPrice={}", totalPrice[0]);
-            return new ResponseEntity<ShoppingCartData>(new ShoppingCartData()
-                    .orderId(orderDetails.getId())
-                    .createdDate(orderDetails.getCreateDate().toLocalDateTime().atOffset(UTC))
-                    .items(items).totalPrice(String.valueOf(totalPrice[0])),
-                    HttpStatus.OK);
+            ensureTotals(orderDetails);
+            OrderSummary summary = orderSummaryCache.put(orderId, orderDetails.getVersion(), toShoppingCartData(orderDetails));
+            return toSummaryResponse(summary, ifNoneMatch);
         });
     }
+
+    /**
+     * Applies the cart update through the cart store, the update getting a null order when it does not exist. Once
+     * stored, the updated cart replaces the cached summary of the order.
+     */
+    private ResponseEntity<ShoppingCartData> updateCart(String orderId, Consumer<OrderDetails> update) {
+        OrderDetails orderDetails = cartStore.update(orderId, update);
+        ShoppingCartData data = toShoppingCartData(orderDetails);
+        orderSummaryCache.put(orderId, orderDetails.getVersion(), data);
+        return new ResponseEntity<>(data, HttpStatus.CREATED);
+    }
+
+    /* The count is optional, a single product is added without it. */
+    private static long countOf(AddProductRequest addProductRequest) {
+        return addProductRequest.getCount() == null ? 1L : addProductRequest.getCount();
+    }
+
+    private static ResponseEntity<ShoppingCartData> toSummaryResponse(OrderSummary summary, String ifNoneMatch) {
+        if (summary.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(summary.getETag()).build();
+        }
+        return ResponseEntity.ok().eTag(summary.getETag()).body(summary.getData());
+    }
+
+    private static ShoppingCartData toShoppingCartData(OrderDetails orderDetails) {
+        List<ProductItemData> items = new ArrayList<>(orderDetails.getProductItems().size());
+        for (ProductItem productItem : orderDetails.getProductItems()) {
+            items.add(new ProductItemData()
+                    .productId(productItem.getProductId())
+                    .name(productItem.getName())
+                    .price(productItem.getPrice().toPlainString())
+                    .count(productItem.getCount())
+                    .totalItemPrice(productItem.getLineTotal().toPlainString()));
+        }
+        return new ShoppingCartData()
+                .orderId(orderDetails.getId())
+                .createdDate(orderDetails.getCreateDate().toLocalDateTime().atOffset(UTC))
+                .items(items).totalPrice(orderDetails.getTotalPrice().toPlainString());
+    }
+
+    /**
+     * Orders saved before the totals were persisted get them computed here, they are stored with the next update.
+     */
+    private static void ensureTotals(OrderDetails orderDetails) {
+        if (orderDetails.getTotalPrice() != null) {
+            return;
+        }
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (ProductItem productItem : orderDetails.getProductItems()) {
+            productItem.setLineTotal(productItem.getPrice().multiply(BigDecimal.valueOf(productItem.getCount())));
+            totalPrice = totalPrice.add(productItem.getLineTotal());
+        }
+        orderDetails.setTotalPrice(totalPrice);
+    }
+
+    /**
+     * Increments the count of the item already holding the product, or adds a new item for it, along with the units
+     * reserved for it. The line total and the order total are updated by the added amount only.
+     */
+    private static void addProductItem(OrderDetails orderDetails, Map<Long, ProductItem> itemsByProductId,
+                                       Products products, Long count, long reserved) {
+        ProductItem productItem = itemsByProductId.get(products.getId());
+        if (productItem != null) {
+            log.info("Product already exists in order, incrementing the item count by {}", count);
+            productItem.setCount(productItem.getCount() + count);
+            if (reserved > 0) {
+                productItem.setReservedCount((productItem.getReservedCount() == null ? 0 : productItem.getReservedCount()) + reserved);
+            }
+        } else {
+            log.info("New product being added to the order list. productId={}", products.getId());
+            productItem = ProductItem.builder()
+                    .productId(products.getId())
+                    .name(products.getName())
+                    .price(new BigDecimal(products.getPrice()).setScale(PRICE_SCALE, RoundingMode.HALF_UP))
+                    .count(count)
+                    .reservedCount(reserved)
+                    .lineTotal(BigDecimal.ZERO)
+                    .build();
+            orderDetails.getProductItems().add(productItem);
+            itemsByProductId.put(products.getId(), productItem);
+        }
+        BigDecimal addedPrice = productItem.getPrice().multiply(BigDecimal.valueOf(count));
+        productItem.setLineTotal(productItem.getLineTotal().add(addedPrice));
+        orderDetails.setTotalPrice(orderDetails.getTotalPrice().add(addedPrice));
+    }
 }
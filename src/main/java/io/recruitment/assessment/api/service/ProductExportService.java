@@ -0,0 +1,89 @@
+package io.recruitment.assessment.api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.gen.model.ProductCatalogueResponseData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the whole product catalogue as newline delimited JSON, one {@link ProductCatalogueResponseData} per line.
+ * The products are read through a single database cursor and let go as soon as they are written,
+ * so the export runs in constant memory whatever the size of the catalogue.
+ */
+@Slf4j
+@Service
+public class ProductExportService {
+
+    private final ProductRepository productRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ObjectWriter lineWriter;
+
+    public ProductExportService(ProductRepository productRepository, EntityManager entityManager,
+                                PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        /* The output is flushed by the buffers of the generator, not after every product. */
+        this.lineWriter = objectMapper.writerFor(ProductCatalogueResponseData.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * @return the number of products written.
+     */
+    public long exportProducts(OutputStream out, boolean gzip) throws IOException {
+        long start = System.currentTimeMillis();
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, 8192) : null;
+        long exported;
+        try (JsonGenerator generator = lineWriter.getFactory().createGenerator(gzipOut != null ? gzipOut : out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            exported = readOnlyTransaction.execute(status -> writeProducts(generator));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        out.flush();
+        log.info("Exported {} products in {}ms, gzip={}", exported, System.currentTimeMillis() - start, gzip);
+        return exported;
+    }
+
+    private long writeProducts(JsonGenerator generator) {
+        long exported = 0;
+        try (Stream<Products> products = productRepository.streamAll()) {
+            Iterator<Products> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Products product = iterator.next();
+                lineWriter.writeValue(generator, ProductsManagementServiceImpl.toProductCatalogueResponseData(product));
+                generator.writeRaw('\n');
+                entityManager.detach(product);
+                exported++;
+            }
+        } catch (IOException e) {
+            /* Most likely the client went away, the cursor is closed with the stream. */
+            throw new UncheckedIOException(e);
+        }
+        return exported;
+    }
+}
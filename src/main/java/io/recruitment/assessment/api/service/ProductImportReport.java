@@ -0,0 +1,36 @@
+package io.recruitment.assessment.api.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import: how many rows were imported and rejected, and why the rows were rejected.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductImportReport {
+
+    private long imported;
+
+    private long rejected;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /** Line of the NDJSON body, or record of the CSV body after its header, starting at 1. */
+        private long row;
+
+        private String message;
+    }
+}
@@ -0,0 +1,208 @@
+package io.recruitment.assessment.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.recruitment.assessment.api.cache.ProductCatalogueCache;
+import io.recruitment.assessment.api.config.ProductImportProperties;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.search.ProductSearchIndex;
+import io.recruitment.assessment.gen.model.CreateOrUpdateProductRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a whole supplier catalogue from a single request body, one product per NDJSON line or CSV record.
+ * The body is parsed as it is read, every row is validated like the add product API, and the valid rows are
+ * inserted as JDBC batches, the ids being allocated by the pooled generator of {@link Products}.
+ * <p>
+ * The import runs in a single transaction, flushed and cleared every chunk, so either every valid row is
+ * imported or none is, and a failed import can be retried with the same Idempotency-Key.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ProductCatalogueCache productCatalogueCache;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final Validator validator;
+
+    private final ProductImportProperties properties;
+
+    private final ObjectReader jsonReader;
+
+    private final ObjectReader csvReader;
+
+    public ProductImportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                ProductCatalogueCache productCatalogueCache, ProductSearchIndex productSearchIndex,
+                                Validator validator, ProductImportProperties properties, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCatalogueCache = productCatalogueCache;
+        this.productSearchIndex = productSearchIndex;
+        this.validator = validator;
+        this.properties = properties;
+        this.jsonReader = objectMapper.readerFor(CreateOrUpdateProductRequest.class);
+        this.csvReader = new CsvMapper().readerFor(new TypeReference<Map<String, String>>() {})
+                .with(CsvSchema.emptySchema().withHeader());
+    }
+
+    /**
+     * Imports every valid row of the body, the invalid rows are reported and skipped.
+     *
+     * @throws CustomBusinessException when the CSV body is malformed, nothing is imported then.
+     */
+    public ProductImportReport importProducts(InputStream in, Format format) {
+        long start = System.currentTimeMillis();
+        ProductImportReport report = new ProductImportReport();
+        List<Products> imported = transactionTemplate.execute(status -> {
+            Batch batch = new Batch(report);
+            try {
+                if (format == Format.CSV) {
+                    readCsv(in, batch);
+                } else {
+                    readNdjson(in, batch);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            batch.flush();
+            return batch.products;
+        });
+
+        /* Only once committed, the catalogue readers must not see products that could still be rolled back. */
+        imported.forEach(productSearchIndex::index);
+        productCatalogueCache.productsImported();
+        report.setImported(imported.size());
+        log.info("Imported {} products and rejected {} rows in {}ms, format={}",
+                report.getImported(), report.getRejected(), System.currentTimeMillis() - start, format);
+        return report;
+    }
+
+    private void readNdjson(InputStream in, Batch batch) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (StringUtils.isBlank(line)) {
+                continue;
+            }
+            CreateOrUpdateProductRequest request;
+            try {
+                request = jsonReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                /* Every line is parsed on its own, a malformed line does not affect the next ones. */
+                batch.reject(row, "Malformed JSON : " + e.getOriginalMessage());
+                continue;
+            }
+            batch.add(row, request);
+        }
+    }
+
+    private void readCsv(InputStream in, Batch batch) throws IOException {
+        long row = 0;
+        try (MappingIterator<Map<String, String>> records = csvReader.readValues(in)) {
+            while (records.hasNextValue()) {
+                Map<String, String> record = records.nextValue();
+                row++;
+                /* The inventory column is optional, the products without inventory are not limited. */
+                String inventory = record.get("inventory");
+                if (StringUtils.isNotBlank(inventory) && (!StringUtils.isNumeric(inventory.trim()) || inventory.trim().length() > 18)) {
+                    batch.reject(row, "Validation error : inventory should be a positive whole number");
+                    continue;
+                }
+                batch.add(row, new CreateOrUpdateProductRequest()
+                        .name(record.get("name"))
+                        .description(record.get("description"))
+                        .price(record.get("price"))
+                        .inventory(StringUtils.isBlank(inventory) ? null : Long.valueOf(inventory.trim())));
+            }
+        } catch (JsonProcessingException e) {
+            /* Unlike a NDJSON line, the end of a malformed CSV record cannot be told apart. */
+            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError",
+                    "Validation error : malformed CSV after record " + row + ", " + e.getOriginalMessage());
+        }
+    }
+
+    private final class Batch {
+        private final ProductImportReport report;
+        private final List<Products> products = new ArrayList<>();
+        private int pending = 0;
+
+        private Batch(ProductImportReport report) {
+            this.report = report;
+        }
+
+        private void add(long row, CreateOrUpdateProductRequest request) {
+            Set<ConstraintViolation<CreateOrUpdateProductRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(row, "Validation error : " + violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            Products product = Products.builder()
+                    .name(request.getName())
+                    .description(request.getDescription())
+                    .price(request.getPrice())
+                    .inventory(request.getInventory())
+                    .build();
+            entityManager.persist(product);
+            products.add(product);
+            if (++pending == properties.getChunkSize()) {
+                flush();
+            }
+        }
+
+        private void reject(long row, String message) {
+            report.setRejected(report.getRejected() + 1);
+            if (report.getErrors().size() < properties.getMaxReportedErrors()) {
+                report.getErrors().add(new ProductImportReport.RowError(row, message));
+            }
+        }
+
+        /* Sends the pending inserts as JDBC batches and detaches them, the persistence context never holds more than a chunk. */
+        private void flush() {
+            entityManager.flush();
+            entityManager.clear();
+            pending = 0;
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package io.recruitment.assessment.api.service;
 
+import io.recruitment.assessment.api.cache.ProductCatalogueCache;
+import io.recruitment.assessment.api.config.ApiTaskExecutor;
 import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.inventory.InventoryReservations;
 import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.api.search.ProductSearchIndex;
 import io.recruitment.assessment.api.validator.ProductsBusinessValidator;
 import io.recruitment.assessment.gen.api.ProductsApiDelegate;
 import io.recruitment.assessment.gen.model.CreateOrUpdateProductRequest;
@@ -9,8 +14,8 @@ import io.recruitment.assessment.gen.model.ProductCatalogueResponseData;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +24,10 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static io.recruitment.assessment.api.validator.ProductsBusinessValidator.SORT_BY_RELEVANCE;
 
 @Slf4j
 @Service
@@ -29,16 +38,27 @@ public class ProductsManagementServiceImpl implements ProductsApiDelegate {
 
     private final ProductsBusinessValidator businessValidator;
 
+    private final ProductCatalogueCache productCatalogueCache;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final IdempotencyService idempotencyService;
+
+    private final ApiTaskExecutor apiTaskExecutor;
+
+    private final InventoryReservations inventoryReservations;
+
     @Override
     public CompletableFuture<ResponseEntity<ProductCatalogueResponseData>> productsApiV1AddPost(String idempotencyKey, CreateOrUpdateProductRequest createOrUpdateProductRequest) {
-        return CompletableFuture.supplyAsync(() -> {
-            businessValidator.validateProductCreateRequest(idempotencyKey);
-            log.info("Request validation completed for add new product information.");
+        return apiTaskExecutor.supplyAsync(() -> idempotencyService.execute(idempotencyKey, ProductCatalogueResponseData.class, () -> {
             Products products = productRepository.save(Products.builder()
                     .name(createOrUpdateProductRequest.getName())
                     .description(createOrUpdateProductRequest.getDescription())
                     .price(createOrUpdateProductRequest.getPrice())
+                    .inventory(createOrUpdateProductRequest.getInventory())
                     .build());
+            productCatalogueCache.productAdded(products);
+            productSearchIndex.index(products);
             log.info("Saved data to database successfully.");
 
             return  new ResponseEntity<ProductCatalogueResponseData>(
@@ -48,16 +68,19 @@ public class ProductsManagementServiceImpl implements ProductsApiDelegate {
                             .description(products.getDescription())
                             .price(products.getPrice()),
                     HttpStatus.CREATED);
-        });
+        }));
     }
 
     @Override
     public CompletableFuture<ResponseEntity<ProductCatalogueResponseData>> productsApiV1DeleteProductIdDelete(String idempotencyKey, Long productId) {
-        return CompletableFuture.supplyAsync(() -> {
-            businessValidator.validateProductDeleteRequest(idempotencyKey, productId);
+        return apiTaskExecutor.supplyAsync(() -> idempotencyService.execute(idempotencyKey, ProductCatalogueResponseData.class, () -> {
+            businessValidator.validateProductDeleteRequest(productId);
             log.info("Request validation completed for delete existing product information.");
-            Products products = productRepository.findById(productId).get();
+            Products products = productCatalogueCache.getProduct(productId).get();
             productRepository.deleteById(productId);
+            productCatalogueCache.productDeleted(productId);
+            inventoryReservations.productDeleted(productId);
+            productSearchIndex.remove(productId);
             log.info("Deleted data from database successfully.");
 
             return  new ResponseEntity<ProductCatalogueResponseData>(
@@ -67,57 +90,68 @@ public class ProductsManagementServiceImpl implements ProductsApiDelegate {
                             .description(products.getDescription())
                             .price(products.getPrice()),
                     HttpStatus.OK);
-        });
+        }));
     }
 
+    /**
+     * The pages after a cursor are read from the database on a worker. The searches served by the index are answered on
+     * the request thread, and so are the catalogue pages once cached, the uncached ones being loaded on a worker.
+     */
     @Override
-    public CompletableFuture<ResponseEntity<List<ProductCatalogueResponseData>>> productsApiV1ListGet(String searchParam, Long pageNo, Long pageSize) {
-        return CompletableFuture.supplyAsync(() -> {
-            businessValidator.validateGetProductLiseRequest(pageNo, pageSize);
-            log.info("Request validation completed for ");
-            List<ProductCatalogueResponseData> dataList = new ArrayList<>();
-            Page<Products> page;
-            if (StringUtils.isBlank(searchParam)) {
-                page = productRepository.findAll(
-                        PageRequest.of(
-                                pageNo == null ? 0 : pageNo.intValue(),
-                                pageSize == null ? 10 : pageSize.intValue(),
-                                Sort.by("id")));
-                log.info("Fetched all data from database successfully, pageNo={}, pageSize={}", pageNo, pageSize);
-            } else {
-                page = productRepository.findByNameContaining(searchParam,
-                        PageRequest.of(
-                                pageNo == null ? 0 : pageNo.intValue(),
-                                pageSize == null ? 10 : pageSize.intValue(),
-                                Sort.by("id")));
-                log.info("Fetched specific data from database successfully, searchParam={}, pageNo={}, pageSize={}",
-                        searchParam, pageNo, pageSize);
-            }
-
-            page.forEach(products -> {
-                dataList.add(new ProductCatalogueResponseData()
-                        .productId(products.getId())
-                        .name(products.getName())
-                        .description(products.getDescription())
-                        .price(products.getPrice()));
+    public CompletableFuture<ResponseEntity<List<ProductCatalogueResponseData>>> productsApiV1ListGet(String searchParam, Long pageNo, Long pageSize, String sortBy, Long afterId) {
+        int page = pageNo == null ? 0 : pageNo.intValue();
+        int size = pageSize == null ? 10 : pageSize.intValue();
+        if (afterId != null) {
+            return apiTaskExecutor.supplyAsync(() -> {
+                validateListRequest(pageNo, pageSize, sortBy, afterId);
+                return fetchProductsAfter(searchParam, afterId, size);
             });
-            return  new ResponseEntity<List<ProductCatalogueResponseData>>(dataList
-                    , HttpStatus.OK);
-
-        });
+        }
+        if (StringUtils.isNotBlank(searchParam) && productSearchIndex.isReady()) {
+            return apiTaskExecutor.supplyFromMemory(() -> {
+                validateListRequest(pageNo, pageSize, sortBy, afterId);
+                List<ProductCatalogueResponseData> dataList = productSearchIndex.search(searchParam, page, size, SORT_BY_RELEVANCE.equals(sortBy))
+                        .stream()
+                        .map(ProductsManagementServiceImpl::toProductCatalogueResponseData)
+                        .collect(Collectors.toList());
+                log.info("Fetched specific data from search index successfully, searchParam={}, pageNo={}, pageSize={}, sortBy={}",
+                        searchParam, pageNo, pageSize, sortBy);
+                return new ResponseEntity<List<ProductCatalogueResponseData>>(dataList, HttpStatus.OK);
+            });
+        }
+        return apiTaskExecutor.supplyFromMemory(() -> {
+                    validateListRequest(pageNo, pageSize, sortBy, afterId);
+                    return productCatalogueCache.getPage(searchParam, page, size,
+                            () -> apiTaskExecutor.supplyAsync(() -> fetchProductPage(searchParam, page, size)));
+                })
+                .thenCompose(Function.identity())
+                .thenApply(dataList -> new ResponseEntity<List<ProductCatalogueResponseData>>(dataList, HttpStatus.OK));
     }
 
     @Override
     public CompletableFuture<ResponseEntity<ProductCatalogueResponseData>> productsApiV1UpdateProductIdPut(String idempotencyKey, Long productId, CreateOrUpdateProductRequest createOrUpdateProductRequest) {
-        return CompletableFuture.supplyAsync(() -> {
-            businessValidator.validateProductUpdateRequest(idempotencyKey, productId);
+        return apiTaskExecutor.supplyAsync(() -> idempotencyService.execute(idempotencyKey, ProductCatalogueResponseData.class, () -> {
+            businessValidator.validateProductUpdateRequest(productId);
             log.info("Request validation completed for ");
-            Products products = productRepository.save(Products.builder()
-                    .id(productId)
-                    .name(createOrUpdateProductRequest.getName())
-                    .description(createOrUpdateProductRequest.getDescription())
-                    .price(createOrUpdateProductRequest.getPrice())
-                    .build());
+            Products products;
+            if (createOrUpdateProductRequest.getInventory() != null) {
+                products = productRepository.save(Products.builder()
+                        .id(productId)
+                        .name(createOrUpdateProductRequest.getName())
+                        .description(createOrUpdateProductRequest.getDescription())
+                        .price(createOrUpdateProductRequest.getPrice())
+                        .inventory(createOrUpdateProductRequest.getInventory())
+                        .build());
+                inventoryReservations.productUpdated(productId);
+            } else {
+                /* Without an inventory in the request the stored one is kept, along with its reservations. */
+                productRepository.updateDetails(productId, createOrUpdateProductRequest.getName(),
+                        createOrUpdateProductRequest.getDescription(), createOrUpdateProductRequest.getPrice());
+                products = productRepository.findById(productId).orElseThrow(() -> new CustomBusinessException(
+                        HttpStatus.BAD_REQUEST, "BusinessValidationError", "Requested product not exists in our system."));
+            }
+            productCatalogueCache.productUpdated(products);
+            productSearchIndex.index(products);
             log.info("Updated data for productId={} in database successfully.", productId);
 
             return  new ResponseEntity<ProductCatalogueResponseData>(
@@ -127,6 +161,51 @@ public class ProductsManagementServiceImpl implements ProductsApiDelegate {
                             .description(products.getDescription())
                             .price(products.getPrice()),
                     HttpStatus.OK);
-        });
+        }));
+    }
+
+    private void validateListRequest(Long pageNo, Long pageSize, String sortBy, Long afterId) {
+        businessValidator.validateGetProductLiseRequest(pageNo, pageSize, sortBy, afterId);
+        log.info("Request validation completed for ");
+    }
+
+    private ResponseEntity<List<ProductCatalogueResponseData>> fetchProductsAfter(String searchParam, long afterId, int pageSize) {
+        Slice<Products> slice;
+        if (StringUtils.isBlank(searchParam)) {
+            slice = productRepository.findByIdGreaterThan(afterId, CursorPages.firstPage(pageSize));
+        } else if (productSearchIndex.isReady()) {
+            slice = productSearchIndex.searchAfter(searchParam, afterId, pageSize);
+        } else {
+            slice = productRepository.findByNameContainingAndIdGreaterThan(searchParam, afterId, CursorPages.firstPage(pageSize));
+        }
+        log.info("Fetched data after the cursor successfully, searchParam={}, afterId={}, pageSize={}", searchParam, afterId, pageSize);
+
+        return new ResponseEntity<List<ProductCatalogueResponseData>>(
+                slice.map(ProductsManagementServiceImpl::toProductCatalogueResponseData).getContent(),
+                CursorPages.nextCursorHeaders(slice, Products::getId), HttpStatus.OK);
+    }
+
+    private List<ProductCatalogueResponseData> fetchProductPage(String searchParam, int pageNo, int pageSize) {
+        List<ProductCatalogueResponseData> dataList = new ArrayList<>();
+        Slice<Products> page;
+        if (StringUtils.isBlank(searchParam)) {
+            page = productRepository.findAllBy(PageRequest.of(pageNo, pageSize, Sort.by("id")));
+            log.info("Fetched all data from database successfully, pageNo={}, pageSize={}", pageNo, pageSize);
+        } else {
+            page = productRepository.findByNameContaining(searchParam, PageRequest.of(pageNo, pageSize, Sort.by("id")));
+            log.info("Fetched specific data from database successfully, searchParam={}, pageNo={}, pageSize={}",
+                    searchParam, pageNo, pageSize);
+        }
+
+        page.forEach(products -> dataList.add(toProductCatalogueResponseData(products)));
+        return dataList;
+    }
+
+    static ProductCatalogueResponseData toProductCatalogueResponseData(Products products) {
+        return new ProductCatalogueResponseData()
+                .productId(products.getId())
+                .name(products.getName())
+                .description(products.getDescription())
+                .price(products.getPrice());
     }
 }
@@ -1,62 +1,59 @@
 package io.recruitment.assessment.api.validator;
 
-import io.recruitment.assessment.api.dvo.Idempotency;
+import io.recruitment.assessment.api.dvo.OrderDetails;
+import io.recruitment.assessment.api.dvo.Products;
 import io.recruitment.assessment.api.exception.CustomBusinessException;
-import io.recruitment.assessment.api.repository.IdempotencyRepository;
-import io.recruitment.assessment.api.repository.OrderRepository;
-import io.recruitment.assessment.api.repository.ProductRepository;
 import io.recruitment.assessment.gen.model.AddProductRequest;
-import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
+import io.recruitment.assessment.gen.model.AddProductsBatchRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 @Component
-@RequiredArgsConstructor
 public class OrderBusinessValidator {
 
-    private final OrderRepository orderRepository;
-
-    private final ProductRepository productRepository;
-
-    private final IdempotencyRepository idempotencyRepository;
-
-
-
-    private void validateIdempotencyKey(String idempotencyKey) {
-        if (StringUtils.isBlank(idempotencyKey)) {
-            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Invalid Idempotency Key, should not be empty.");
+    /**
+     * Validates the request against the order and the product already loaded by the caller,
+     * either of them being null when it does not exist.
+     */
+    public void validateOrderAddProductRequest(OrderDetails orderDetails, Products products, AddProductRequest addProductRequest) {
+        if (orderDetails == null) {
+            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Invalid Order id, requested order id not exists in our system.");
         }
-        /* Validate idempotency key and insert as required.*/
-        if (idempotencyRepository.existsById(idempotencyKey)) {
-            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Invalid Idempotency Key, already exists.");
-        } else {
-            idempotencyRepository.save(Idempotency.builder().id(idempotencyKey).build());
+        if (products == null) {
+            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Invalid Product id, requested product id not exists in our system.");
         }
+        validateItemCount(addProductRequest.getCount());
     }
 
-
-
-    public void validateOrderCreateRequest(String idempotencyKey) {
-        validateIdempotencyKey(idempotencyKey);
-    }
-
-    public void validateOrderAddProductRequest(String idempotencyKey, String orderId, AddProductRequest addProductRequest) {
-        validateIdempotencyKey(idempotencyKey);
-        if (!orderRepository.existsById(orderId)) {
+    /**
+     * Validates every item of the batch against the order and the products already loaded by the caller.
+     */
+    public void validateOrderAddProductsBatchRequest(OrderDetails orderDetails, Map<Long, Products> productsById,
+                                                     AddProductsBatchRequest addProductsBatchRequest) {
+        if (orderDetails == null) {
             throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Invalid Order id, requested order id not exists in our system.");
         }
-        if (!productRepository.existsById(addProductRequest.getProductId())) {
-            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Invalid Product id, requested product id not exists in our system.");
-        }
-        if (addProductRequest.getCount() < 0) {
-            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Invalid item count, should be a positive number.");
+        for (AddProductRequest addProductRequest : addProductsBatchRequest.getItems()) {
+            if (!productsById.containsKey(addProductRequest.getProductId())) {
+                throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError",
+                        "Invalid Product id, requested product id " + addProductRequest.getProductId() + " not exists in our system.");
+            }
+            validateItemCount(addProductRequest.getCount());
         }
     }
 
-    public void validateGetOrderSummaryRequest(String orderId) {
-        if (!orderRepository.existsById(orderId)) {
+    public void validateGetOrderSummaryRequest(OrderDetails orderDetails) {
+        if (orderDetails == null) {
             throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Invalid Order id, requested order id not exists in our system.");
         }
     }
+
+    private static void validateItemCount(Long count) {
+        /* Without a count a single product is added. */
+        if (count != null && count < 0) {
+            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Invalid item count, should be a positive number.");
+        }
+    }
 }
@@ -1,11 +1,8 @@
 package io.recruitment.assessment.api.validator;
 
-import io.recruitment.assessment.api.dvo.Idempotency;
 import io.recruitment.assessment.api.exception.CustomBusinessException;
-import io.recruitment.assessment.api.repository.IdempotencyRepository;
 import io.recruitment.assessment.api.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
@@ -13,29 +10,25 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class ProductsBusinessValidator {
 
-    private final ProductRepository productRepository;
+    public static final String SORT_BY_ID = "id";
 
-    private final IdempotencyRepository idempotencyRepository;
+    public static final String SORT_BY_RELEVANCE = "relevance";
 
-    public void validateProductCreateRequest(String idempotencyKey){
-        validateIdempotencyKey(idempotencyKey);
-    }
+    private final ProductRepository productRepository;
 
-    public void validateProductDeleteRequest(String idempotencyKey, Long productId) {
-        validateIdempotencyKey(idempotencyKey);
+    public void validateProductDeleteRequest(Long productId) {
         if (!productRepository.existsById(productId)) {
             throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Requested product not exists in our system.");
         }
     }
 
-    public void validateProductUpdateRequest(String idempotencyKey, Long productId) {
-        validateProductCreateRequest(idempotencyKey);
+    public void validateProductUpdateRequest(Long productId) {
         if (!productRepository.existsById(productId)) {
             throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Requested product not exists in our system.");
         }
     }
 
-    public void validateGetProductLiseRequest(Long pageNo, Long pageSize) {
+    public void validateGetProductLiseRequest(Long pageNo, Long pageSize, String sortBy, Long afterId) {
         if (pageNo != null && pageNo < 0) {
             throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Validation error : pageNo should be a valid positive number.");
         }
@@ -43,20 +36,22 @@ public class ProductsBusinessValidator {
         if (pageSize != null && pageSize < 0) {
             throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Validation error : pageSize should be a valid positive number.");
         }
-    }
 
-    private void validateIdempotencyKey(String idempotencyKey) {
-        if (StringUtils.isBlank(idempotencyKey)) {
-            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Invalid Idempotency Key, should not be empty.");
+        if (sortBy != null && !SORT_BY_ID.equals(sortBy) && !SORT_BY_RELEVANCE.equals(sortBy)) {
+            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Validation error : sortBy should be one of id, relevance.");
         }
-        /* Validate idempotency key and insert as required.*/
-        if (idempotencyRepository.existsById(idempotencyKey)) {
-            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Invalid Idempotency Key, already exists.");
-        } else {
-            idempotencyRepository.save(Idempotency.builder().id(idempotencyKey).build());
+
+        if (afterId != null && SORT_BY_RELEVANCE.equals(sortBy)) {
+            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Validation error : afterId can only be used with the ordering by id.");
         }
-    }
 
+        if (afterId != null && afterId < 0) {
+            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Validation error : afterId should be a valid positive number.");
+        }
 
+        if (afterId != null && pageSize != null && pageSize == 0) {
+            throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "DataValidationError", "Validation error : pageSize should be greater than zero with afterId.");
+        }
+    }
 
 }
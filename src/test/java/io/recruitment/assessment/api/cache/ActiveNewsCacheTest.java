@@ -0,0 +1,79 @@
+package io.recruitment.assessment.api.cache;
+
+import io.recruitment.assessment.api.config.NewsCacheProperties;
+import io.recruitment.assessment.api.dvo.News;
+import io.recruitment.assessment.api.repository.NewsRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Slice;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class ActiveNewsCacheTest {
+
+    private NewsRepository newsRepository;
+
+    private ActiveNewsCache activeNewsCache;
+
+    @BeforeEach
+    public void init() {
+        newsRepository = Mockito.mock(NewsRepository.class);
+        activeNewsCache = new ActiveNewsCache(newsRepository, new NewsCacheProperties());
+    }
+
+    @Test
+    void testLoad_ListServedWithoutDatabase() {
+        Mockito.when(newsRepository.findByExpiryDateAfter(Mockito.any(Timestamp.class)))
+                .thenReturn(List.of(news(1L, 60_000), news(2L, 60_000), news(3L, 60_000)));
+        activeNewsCache.load();
+
+        Slice<News> first = activeNewsCache.getPage(0, 2);
+        Slice<News> next = activeNewsCache.getPageAfter(2L, 2);
+
+        Assertions.assertTrue(activeNewsCache.isReady());
+        Assertions.assertEquals(List.of(1L, 2L), ids(first));
+        Assertions.assertTrue(first.hasNext());
+        Assertions.assertEquals(List.of(3L), ids(next));
+        Assertions.assertFalse(next.hasNext());
+        Mockito.verify(newsRepository, Mockito.times(1)).findByExpiryDateAfter(Mockito.any(Timestamp.class));
+    }
+
+    @Test
+    void testGetPage_ExpiredNewsNeverServed() throws InterruptedException {
+        activeNewsCache.newsAdded(news(1L, 60_000));
+        activeNewsCache.newsAdded(news(2L, 50));
+        activeNewsCache.newsAdded(news(3L, -1_000));
+
+        Assertions.assertEquals(List.of(1L, 2L), ids(activeNewsCache.getPage(0, 10)));
+        Thread.sleep(100);
+        Assertions.assertEquals(List.of(1L), ids(activeNewsCache.getPage(0, 10)));
+    }
+
+    @Test
+    void testRefresh_KeepsTheNewsAddedMeanwhile() {
+        Mockito.when(newsRepository.findByExpiryDateAfter(Mockito.any(Timestamp.class)))
+                .thenReturn(List.of(news(1L, 60_000)));
+        activeNewsCache.newsAdded(news(2L, 60_000));
+
+        activeNewsCache.refresh();
+
+        Assertions.assertEquals(List.of(1L, 2L), ids(activeNewsCache.getPage(0, 10)));
+    }
+
+    private static List<Long> ids(Slice<News> slice) {
+        return slice.getContent().stream().map(News::getId).collect(Collectors.toList());
+    }
+
+    private static News news(Long id, long expiresInMillis) {
+        return News.builder()
+                .id(id)
+                .title("News Title")
+                .description("News Description")
+                .expiryDate(new Timestamp(System.currentTimeMillis() + expiresInMillis))
+                .build();
+    }
+}
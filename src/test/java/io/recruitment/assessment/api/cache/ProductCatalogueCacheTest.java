@@ -0,0 +1,140 @@
+package io.recruitment.assessment.api.cache;
+
+import io.recruitment.assessment.api.config.ProductCacheProperties;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.gen.model.ProductCatalogueResponseData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ProductCatalogueCacheTest {
+
+    private ProductRepository productRepository;
+
+    private ProductCatalogueCache productCatalogueCache;
+
+    private AtomicInteger pageLoads;
+
+    @BeforeEach
+    public void init() {
+        productRepository = Mockito.mock(ProductRepository.class);
+        productCatalogueCache = new ProductCatalogueCache(productRepository, new ProductCacheProperties());
+        pageLoads = new AtomicInteger();
+    }
+
+    @Test
+    void testGetPage_LoadedOnce() {
+        getPage(null, 0, 10, 1L);
+        getPage("", 0, 10, 1L);
+
+        Assertions.assertEquals(1, pageLoads.get());
+    }
+
+    @Test
+    void testGetPage_ConcurrentRequestsShareTheLoad() {
+        CompletableFuture<List<ProductCatalogueResponseData>> load = new CompletableFuture<>();
+        CompletableFuture<List<ProductCatalogueResponseData>> first = productCatalogueCache.getPage(null, 0, 10, () -> {
+            pageLoads.incrementAndGet();
+            return load;
+        });
+        CompletableFuture<List<ProductCatalogueResponseData>> second = productCatalogueCache.getPage(null, 0, 10, () -> {
+            pageLoads.incrementAndGet();
+            return load;
+        });
+
+        Assertions.assertFalse(second.isDone());
+        load.complete(List.of(new ProductCatalogueResponseData().productId(1L)));
+        Assertions.assertEquals(1L, first.join().get(0).getProductId());
+        Assertions.assertEquals(1L, second.join().get(0).getProductId());
+        Assertions.assertEquals(1, pageLoads.get());
+    }
+
+    @Test
+    void testProductUpdated_InvalidatesOnlyPagesWithTheProduct() {
+        getPage(null, 0, 10, 1L);
+        getPage(null, 1, 10, 11L);
+        getPage("drill", 0, 10, 11L);
+
+        productCatalogueCache.productUpdated(product(1L));
+        getPage(null, 0, 10, 1L);
+        getPage(null, 1, 10, 11L);
+        getPage("drill", 0, 10, 11L);
+
+        Assertions.assertEquals(5, pageLoads.get());
+    }
+
+    @Test
+    void testProductUpdated_InvalidatesPagesBeingLoaded() {
+        CompletableFuture<List<ProductCatalogueResponseData>> load = new CompletableFuture<>();
+        CompletableFuture<List<ProductCatalogueResponseData>> loading = productCatalogueCache.getPage(null, 0, 10, () -> {
+            pageLoads.incrementAndGet();
+            return load;
+        });
+
+        /* Read before the update, completed after it. */
+        productCatalogueCache.productUpdated(product(5L));
+        load.complete(List.of(new ProductCatalogueResponseData().productId(1L)));
+        loading.join();
+        getPage(null, 0, 10, 1L);
+
+        Assertions.assertEquals(2, pageLoads.get());
+    }
+
+    @Test
+    void testProductAddedOrDeleted_InvalidatesAllPages() {
+        getPage(null, 0, 10, 1L);
+        productCatalogueCache.productAdded(product(21L));
+        getPage(null, 0, 10, 1L);
+        productCatalogueCache.productDeleted(21L);
+        getPage(null, 0, 10, 1L);
+
+        Assertions.assertEquals(3, pageLoads.get());
+    }
+
+    @Test
+    void testGetProduct_ReadThrough() {
+        Mockito.when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+
+        Assertions.assertTrue(productCatalogueCache.getProduct(1L).isPresent());
+        Assertions.assertTrue(productCatalogueCache.getProduct(1L).isPresent());
+        Assertions.assertFalse(productCatalogueCache.getProduct(2L).isPresent());
+
+        Mockito.verify(productRepository, Mockito.times(1)).findById(1L);
+        productCatalogueCache.productDeleted(1L);
+        Mockito.when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        Assertions.assertFalse(productCatalogueCache.getProduct(1L).isPresent());
+    }
+
+    @Test
+    void testGetProducts_OnlyMissingProductsLoaded() {
+        Mockito.when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L)));
+        Mockito.when(productRepository.findAllById(Mockito.anyIterable())).thenReturn(List.of(product(2L)));
+        productCatalogueCache.getProduct(1L);
+
+        Map<Long, Products> products = productCatalogueCache.getProducts(List.of(1L, 2L, 3L));
+
+        Assertions.assertEquals(Set.of(1L, 2L), products.keySet());
+        Mockito.verify(productRepository, Mockito.times(1)).findAllById(Mockito.any());
+    }
+
+    private List<ProductCatalogueResponseData> getPage(String searchParam, int pageNo, int pageSize, Long productId) {
+        return productCatalogueCache.getPage(searchParam, pageNo, pageSize, () -> {
+            pageLoads.incrementAndGet();
+            return CompletableFuture.completedFuture(List.of(new ProductCatalogueResponseData().productId(productId)
+                    .name("Product Name").description("Product Description").price("100.00")));
+        }).join();
+    }
+
+    private static Products product(Long productId) {
+        return Products.builder().id(productId).name("Product Name").description("Product Description").price("100.00").build();
+    }
+}
@@ -0,0 +1,111 @@
+package io.recruitment.assessment.api.cart;
+
+import io.recruitment.assessment.api.dvo.ProductItem;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class CartJournalTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReplay_EventsOfThePreviousRun() throws IOException {
+        CartJournal journal = new CartJournal(directory, SEGMENT_SIZE);
+        journal.append(new CartChange(CartChange.Type.CREATED, "order1", 0L, new Timestamp(System.currentTimeMillis()),
+                BigDecimal.ZERO, Collections.emptyList()));
+        journal.append(change("order1", 1L, 2L));
+        journal.append(change("order1", 2L, 5L));
+        journal.close();
+
+        List<CartChange> replayed = new ArrayList<>();
+        new CartJournal(directory, SEGMENT_SIZE).replay(0, replayed::add);
+
+        Assertions.assertEquals(3, replayed.size());
+        Assertions.assertEquals(CartChange.Type.CREATED, replayed.get(0).getType());
+        Assertions.assertEquals(2L, replayed.get(2).getVersion());
+        Assertions.assertEquals(5L, replayed.get(2).getItems().get(0).getCount());
+        Assertions.assertEquals(new BigDecimal("12.50"), replayed.get(2).getItems().get(0).getLineTotal());
+    }
+
+    @Test
+    void testReplay_TornRecordIgnored() throws IOException {
+        CartJournal journal = new CartJournal(directory, SEGMENT_SIZE);
+        journal.append(change("order1", 1L, 2L));
+        journal.close();
+        try (FileChannel segment = FileChannel.open(segments().get(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            segment.read(length, 0);
+            /* A record whose length made it to the disk but not its content. */
+            segment.write(ByteBuffer.allocate(2 * Integer.BYTES).putInt(0, 16).putInt(4, 1234), 2L * Integer.BYTES + length.getInt(0));
+        }
+
+        List<CartChange> replayed = new ArrayList<>();
+        new CartJournal(directory, SEGMENT_SIZE).replay(0, replayed::add);
+
+        Assertions.assertEquals(1, replayed.size());
+    }
+
+    @Test
+    void testReplay_SegmentsOfASnapshotSkipped() throws IOException {
+        CartJournal journal = new CartJournal(directory, SEGMENT_SIZE);
+        journal.append(change("order1", 1L, 2L));
+        long snapshotSequence = journal.rotate();
+        journal.append(change("order1", 2L, 3L));
+        journal.deleteSegmentsUpTo(snapshotSequence);
+        journal.close();
+
+        List<CartChange> replayed = new ArrayList<>();
+        new CartJournal(directory, SEGMENT_SIZE).replay(snapshotSequence, replayed::add);
+
+        Assertions.assertEquals(1, replayed.size());
+        Assertions.assertEquals(2L, replayed.get(0).getVersion());
+    }
+
+    @Test
+    void testAppend_FullSegmentRolledOver() throws IOException {
+        CartJournal journal = new CartJournal(directory, 256);
+        for (long version = 1; version <= 10; version++) {
+            journal.append(change("order1", version, version));
+        }
+        journal.close();
+
+        List<CartChange> replayed = new ArrayList<>();
+        new CartJournal(directory, 256).replay(0, replayed::add);
+
+        Assertions.assertTrue(segments().size() > 1);
+        Assertions.assertEquals(10, replayed.size());
+        Assertions.assertEquals(10L, replayed.get(9).getVersion());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static CartChange change(String orderId, Long version, long count) {
+        BigDecimal lineTotal = new BigDecimal("2.50").multiply(BigDecimal.valueOf(count));
+        ProductItem item = ProductItem.builder().productId(1L).name("Drill").price(new BigDecimal("2.50"))
+                .count(count).reservedCount(0L).lineTotal(lineTotal).build();
+        return new CartChange(CartChange.Type.ITEMS_CHANGED, orderId, version, new Timestamp(System.currentTimeMillis()),
+                lineTotal, Collections.singletonList(item));
+    }
+}
@@ -0,0 +1,99 @@
+package io.recruitment.assessment.api.cart;
+
+import io.recruitment.assessment.api.cart.CartSnapshots.Snapshot;
+import io.recruitment.assessment.api.cart.CartSnapshots.SnapshotCart;
+import io.recruitment.assessment.api.dvo.OrderDetails;
+import io.recruitment.assessment.api.dvo.ProductItem;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+class CartSnapshotsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadLatest_CartsOfTheLastSnapshot() throws IOException {
+        CartSnapshots snapshots = new CartSnapshots(directory);
+        snapshots.write(3, Collections.singletonList(new SnapshotCart(cart("order1", 1L), 1)));
+        snapshots.write(7, Arrays.asList(new SnapshotCart(cart("order1", 4L), 2), new SnapshotCart(cart("order2", 0L), -1)));
+
+        Snapshot snapshot = new CartSnapshots(directory).readLatest();
+
+        Assertions.assertEquals(7, snapshot.getJournalSequence());
+        Assertions.assertEquals(2, snapshot.getCarts().size());
+        OrderDetails cart = snapshot.getCarts().get(0).getCart();
+        Assertions.assertEquals("order1", cart.getId());
+        Assertions.assertEquals(4L, cart.getVersion());
+        Assertions.assertEquals(2, snapshot.getCarts().get(0).getFlushedVersion());
+        Assertions.assertEquals(4L, cart.getProductItems().get(0).getCount());
+        Assertions.assertEquals(new BigDecimal("10.00"), cart.getTotalPrice());
+        Assertions.assertEquals(-1, snapshot.getCarts().get(1).getFlushedVersion());
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testReadLatest_CartWithoutTotals() throws IOException {
+        OrderDetails legacy = cart("order1", 2L);
+        legacy.setTotalPrice(null);
+        legacy.getProductItems().get(0).setLineTotal(null);
+        legacy.getProductItems().get(0).setReservedCount(null);
+        CartSnapshots snapshots = new CartSnapshots(directory);
+        snapshots.write(3, Collections.singletonList(new SnapshotCart(legacy, 2)));
+
+        OrderDetails cart = snapshots.readLatest().getCarts().get(0).getCart();
+
+        Assertions.assertNull(cart.getTotalPrice());
+        Assertions.assertNull(cart.getProductItems().get(0).getLineTotal());
+        Assertions.assertEquals(2L, cart.getProductItems().get(0).getCount());
+    }
+
+    @Test
+    void testReadLatest_NoSnapshot() throws IOException {
+        Assertions.assertNull(new CartSnapshots(directory).readLatest());
+    }
+
+    @Test
+    void testReadLatest_Corrupted_Rejected() throws IOException {
+        CartSnapshots snapshots = new CartSnapshots(directory);
+        snapshots.write(3, Collections.singletonList(new SnapshotCart(cart("order1", 1L), 1)));
+        try (Stream<Path> files = Files.list(directory)) {
+            Path snapshot = files.findFirst().get();
+            byte[] content = Files.readAllBytes(snapshot);
+            content[20] ^= 0x7f;
+            Files.write(snapshot, content);
+        }
+
+        Assertions.assertThrows(IOException.class, snapshots::readLatest);
+    }
+
+    private static OrderDetails cart(String orderId, Long version) {
+        List<ProductItem> items = new ArrayList<>();
+        if (version > 0) {
+            items.add(ProductItem.builder().productId(1L).name("Drill").price(new BigDecimal("2.50"))
+                    .count(version).reservedCount(version).lineTotal(new BigDecimal("2.50").multiply(BigDecimal.valueOf(version))).build());
+        }
+        return OrderDetails.builder()
+                .id(orderId)
+                .createDate(new Timestamp(System.currentTimeMillis()))
+                .updateDate(new Timestamp(System.currentTimeMillis()))
+                .totalPrice(items.isEmpty() ? BigDecimal.ZERO : items.get(0).getLineTotal())
+                .version(version)
+                .productItems(items)
+                .build();
+    }
+}
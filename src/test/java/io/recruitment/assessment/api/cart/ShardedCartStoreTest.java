@@ -0,0 +1,262 @@
+package io.recruitment.assessment.api.cart;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.recruitment.assessment.api.cache.OrderSummaryCache;
+import io.recruitment.assessment.api.config.CartWriteBehindProperties;
+import io.recruitment.assessment.api.dvo.OrderDetails;
+import io.recruitment.assessment.api.dvo.ProductItem;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.inventory.InventoryReservations;
+import io.recruitment.assessment.api.repository.OrderRepository;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.gen.api.OrdersApiDelegate;
+import io.recruitment.assessment.gen.model.AddProductRequest;
+import io.recruitment.assessment.gen.model.AddProductsBatchRequest;
+import io.recruitment.assessment.gen.model.ShoppingCartData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "orders.write-behind.enabled=true",
+        "orders.write-behind.flush-interval=PT1H",
+        "orders.write-behind.journal-directory=target/cart-journal"
+})
+@ActiveProfiles("h2")
+class ShardedCartStoreTest {
+
+    @Autowired
+    private OrdersApiDelegate ordersApiDelegate;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderSummaryCache orderSummaryCache;
+
+    @Autowired
+    private InventoryReservations inventoryReservations;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void testOrdersApiV1AddOrderIdPut_ServedFromMemory_WrittenOnFlush() {
+        Products products = productRepository.save(Products.builder().name("Buffered").description("Product Description")
+                .price("2.50").build());
+        String orderId = ordersApiDelegate.ordersApiV1CreatePost(UUID.randomUUID().toString()).join().getBody().getOrderId();
+
+        for (int i = 0; i < 5; i++) {
+            ordersApiDelegate.ordersApiV1AddOrderIdPut(UUID.randomUUID().toString(), orderId,
+                    new AddProductRequest().productId(products.getId()).count(1L)).join();
+        }
+        orderSummaryCache.invalidate(orderId);
+        ResponseEntity<ShoppingCartData> summary = ordersApiDelegate.ordersApiV1SummaryOrderIdGet(orderId, null).join();
+
+        Assertions.assertEquals(5L, summary.getBody().getItems().get(0).getCount());
+        Assertions.assertEquals("12.50", summary.getBody().getTotalPrice());
+        Assertions.assertFalse(orderRepository.findWithItemsById(orderId).isPresent());
+
+        ((ShardedCartStore) cartStore).flush();
+
+        OrderDetails stored = orderRepository.findWithItemsById(orderId).get();
+        Assertions.assertEquals(1, stored.getProductItems().size());
+        Assertions.assertEquals(5L, stored.getProductItems().get(0).getCount());
+        Assertions.assertEquals(0, new BigDecimal("12.50").compareTo(stored.getTotalPrice()));
+        Assertions.assertEquals("\"" + stored.getVersion() + "\"", summary.getHeaders().getETag());
+    }
+
+    @Test
+    void testOrdersApiV1AddBatchOrderIdPut_Rejected_CartAndInventoryUnchanged() {
+        Products plenty = productRepository.save(Products.builder().name("Plenty").description("Product Description")
+                .price("1.00").inventory(100L).build());
+        Products scarce = productRepository.save(Products.builder().name("Scarce").description("Product Description")
+                .price("1.00").inventory(1L).build());
+        String orderId = ordersApiDelegate.ordersApiV1CreatePost(UUID.randomUUID().toString()).join().getBody().getOrderId();
+
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> ordersApiDelegate
+                .ordersApiV1AddBatchOrderIdPut(UUID.randomUUID().toString(), orderId, new AddProductsBatchRequest().items(Arrays.asList(
+                        new AddProductRequest().productId(plenty.getId()).count(2L),
+                        new AddProductRequest().productId(scarce.getId()).count(5L)))).join());
+
+        Assertions.assertEquals("InsufficientInventoryError", ((CustomBusinessException) e.getCause()).getCode());
+        Assertions.assertTrue(cartStore.get(orderId).getProductItems().isEmpty());
+        inventoryReservations.returnLeases();
+        Assertions.assertEquals(100L, productRepository.findById(plenty.getId()).get().getInventory());
+        Assertions.assertEquals(1L, productRepository.findById(scarce.getId()).get().getInventory());
+    }
+
+    @Test
+    void testStart_ChangesOfACrashedRunReplayed() throws Exception {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        OrderDetails orderDetails = orderRepository.save(OrderDetails.builder().id(UUID.randomUUID().toString())
+                .createDate(now).updateDate(now).productItems(new ArrayList<>()).totalPrice(BigDecimal.ZERO).build());
+        ShardedCartStore crashed = newShardedCartStore(new CartWriteBehindProperties());
+        crashed.start();
+        for (long count = 1; count <= 3; count++) {
+            long itemCount = count;
+            crashed.update(orderDetails.getId(), cart -> setItemCount(cart, itemCount));
+        }
+
+        /* The crashed buffer is neither flushed nor stopped, the next one finds its journal only. */
+        ShardedCartStore recovered = newShardedCartStore(new CartWriteBehindProperties());
+        recovered.start();
+        recovered.flush();
+
+        OrderDetails stored = orderRepository.findWithItemsById(orderDetails.getId()).get();
+        Assertions.assertEquals(3L, stored.getProductItems().get(0).getCount());
+        Assertions.assertEquals(0, new BigDecimal("7.50").compareTo(stored.getTotalPrice()));
+        Assertions.assertEquals(3L, stored.getVersion());
+    }
+
+    @Test
+    void testStart_ReplayedWithoutTheDatabase_StoredStateMergedOnUse() throws Exception {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        OrderDetails orderDetails = orderRepository.save(OrderDetails.builder().id(UUID.randomUUID().toString())
+                .createDate(now).updateDate(now).productItems(new ArrayList<>()).totalPrice(BigDecimal.ZERO).build());
+        ShardedCartStore crashed = newShardedCartStore(new CartWriteBehindProperties());
+        crashed.start();
+        crashed.update(orderDetails.getId(), cart -> setItemCount(cart, 2));
+
+        /* Switched without restubbing, the first flush of the recovered buffer runs concurrently with the test. */
+        AtomicBoolean databaseUp = new AtomicBoolean();
+        OrderRepository unavailable = Mockito.mock(OrderRepository.class);
+        Mockito.when(unavailable.findWithItemsById(Mockito.anyString())).thenAnswer(invocation -> {
+            if (!databaseUp.get()) {
+                throw new IllegalStateException("Database down");
+            }
+            return orderRepository.findWithItemsById(invocation.getArgument(0));
+        });
+        ShardedCartStore recovered = newShardedCartStore(new CartWriteBehindProperties(), unavailable);
+        recovered.start();
+        Assertions.assertEquals(1, recovered.size());
+
+        databaseUp.set(true);
+        OrderDetails cart = recovered.get(orderDetails.getId());
+        Assertions.assertEquals(1L, cart.getVersion());
+        Assertions.assertEquals(2L, cart.getProductItems().get(0).getCount());
+        Assertions.assertEquals(0, new BigDecimal("5.00").compareTo(cart.getTotalPrice()));
+        Assertions.assertNotNull(cart.getCreateDate());
+    }
+
+    @Test
+    void testStart_CartsOfTheSnapshotAndJournalRestored() throws Exception {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        String orderId = UUID.randomUUID().toString();
+        ShardedCartStore crashed = newShardedCartStore(new CartWriteBehindProperties());
+        crashed.start();
+        crashed.create(OrderDetails.builder().id(orderId).createDate(now).updateDate(now).totalPrice(BigDecimal.ZERO).build());
+        crashed.update(orderId, cart -> setItemCount(cart, 1));
+        crashed.snapshot();
+        crashed.update(orderId, cart -> setItemCount(cart, 2));
+
+        ShardedCartStore recovered = newShardedCartStore(new CartWriteBehindProperties());
+        recovered.start();
+
+        OrderDetails cart = recovered.get(orderId);
+        Assertions.assertEquals(2L, cart.getVersion());
+        Assertions.assertEquals(2L, cart.getProductItems().get(0).getCount());
+        Assertions.assertEquals(0, new BigDecimal("5.00").compareTo(cart.getTotalPrice()));
+        recovered.flush();
+        OrderDetails stored = orderRepository.findWithItemsById(orderId).get();
+        Assertions.assertEquals(2L, stored.getProductItems().get(0).getCount());
+        Assertions.assertEquals(2L, stored.getVersion());
+    }
+
+    @Test
+    void testFlush_LeastRecentlyUsedCartsDroppedPastCapacity() throws Exception {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        CartWriteBehindProperties properties = new CartWriteBehindProperties();
+        properties.setShards(1);
+        properties.setMaxCarts(2);
+        ShardedCartStore store = newShardedCartStore(properties);
+        store.start();
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            orderIds.add(store.create(OrderDetails.builder().id(UUID.randomUUID().toString()).createDate(now).updateDate(now)
+                    .totalPrice(BigDecimal.ZERO).build()).getId());
+        }
+
+        store.flush();
+
+        Assertions.assertEquals(2, store.size());
+        OrderDetails evicted = store.get(orderIds.get(0));
+        Assertions.assertEquals(0L, evicted.getVersion());
+        Assertions.assertEquals(2, store.size());
+        store.update(orderIds.get(0), cart -> setItemCount(cart, 1));
+        store.flush();
+        Assertions.assertEquals(1L, orderRepository.findWithItemsById(orderIds.get(0)).get().getVersion());
+    }
+
+    @Test
+    void testFlush_CartPurgedWhileInMemory_ReCreatedWithoutReservations() throws Exception {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        ShardedCartStore store = newShardedCartStore(new CartWriteBehindProperties());
+        store.start();
+        String orderId = store.create(OrderDetails.builder().id(UUID.randomUUID().toString()).createDate(now).updateDate(now)
+                .totalPrice(BigDecimal.ZERO).build()).getId();
+        store.flush();
+        store.update(orderId, cart -> {
+            setItemCount(cart, 2);
+            cart.getProductItems().get(0).setReservedCount(2L);
+        });
+
+        orderRepository.deleteById(orderId);
+        store.flush();
+
+        OrderDetails stored = orderRepository.findWithItemsById(orderId).get();
+        Assertions.assertEquals(2L, stored.getProductItems().get(0).getCount());
+        Assertions.assertEquals(0L, stored.getProductItems().get(0).getReservedCount());
+        Assertions.assertEquals(0L, store.get(orderId).getProductItems().get(0).getReservedCount());
+    }
+
+    private ShardedCartStore newShardedCartStore(CartWriteBehindProperties properties) {
+        return newShardedCartStore(properties, orderRepository);
+    }
+
+    private ShardedCartStore newShardedCartStore(CartWriteBehindProperties properties, OrderRepository orderRepository) {
+        properties.setEnabled(true);
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setJournalDirectory(journalDirectory);
+        return new ShardedCartStore(orderRepository, orderSummaryCache, properties, transactionManager, new SimpleMeterRegistry());
+    }
+
+    private static void setItemCount(OrderDetails cart, long count) {
+        BigDecimal lineTotal = new BigDecimal("2.50").multiply(BigDecimal.valueOf(count));
+        if (cart.getProductItems().isEmpty()) {
+            cart.getProductItems().add(ProductItem.builder().productId(1L).name("Replayed").price(new BigDecimal("2.50"))
+                    .reservedCount(0L).build());
+        }
+        cart.getProductItems().get(0).setCount(count);
+        cart.getProductItems().get(0).setLineTotal(lineTotal);
+        cart.setTotalPrice(lineTotal);
+    }
+}
@@ -0,0 +1,51 @@
+package io.recruitment.assessment.api.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+class ApiTaskExecutorTest {
+
+    @Test
+    void testSupplyAsync_Success() throws Exception {
+        ApiTaskExecutor apiTaskExecutor = new ApiTaskExecutor(new ApiExecutorProperties());
+
+        String threadName = apiTaskExecutor.supplyAsync(() -> Thread.currentThread().getName()).get();
+
+        Assertions.assertTrue(threadName.startsWith("api-worker-"));
+        apiTaskExecutor.shutdown();
+    }
+
+    @Test
+    void testSupplyAsync_Rejected_WhenSaturated() throws Exception {
+        ApiExecutorProperties properties = new ApiExecutorProperties();
+        properties.setCorePoolSize(1);
+        properties.setMaxPoolSize(1);
+        properties.setQueueCapacity(1);
+        ApiTaskExecutor apiTaskExecutor = new ApiTaskExecutor(properties);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> running = apiTaskExecutor.supplyAsync(() -> await(latch));
+        CompletableFuture<Boolean> queued = apiTaskExecutor.supplyAsync(() -> await(latch));
+        Assertions.assertThrows(RejectedExecutionException.class, () -> apiTaskExecutor.supplyAsync(() -> await(latch)));
+        Assertions.assertEquals(1, apiTaskExecutor.getRejectedCount());
+
+        latch.countDown();
+        Assertions.assertTrue(running.get());
+        Assertions.assertTrue(queued.get());
+        apiTaskExecutor.shutdown();
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            latch.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.recruitment.assessment.api.inventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.recruitment.assessment.api.config.InventoryProperties;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+
+class InventoryReservationsTest {
+
+    private static final Products TRACKED = Products.builder().id(1L).name("Drill").price("10.00").inventory(100L).build();
+
+    private ProductRepository productRepository;
+
+    private InventoryReservations inventoryReservations;
+
+    @BeforeEach
+    public void init() {
+        productRepository = Mockito.mock(ProductRepository.class);
+        InventoryProperties properties = new InventoryProperties();
+        properties.setLeaseSize(10);
+        inventoryReservations = new InventoryReservations(productRepository, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testReserve_UntrackedProduct_NotLimited() {
+        Products untracked = Products.builder().id(2L).name("Saw").price("10.00").build();
+
+        Assertions.assertEquals(0, inventoryReservations.reserve(untracked, 10_000));
+        Mockito.verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testReserve_ServedFromTheLease() {
+        Mockito.when(productRepository.takeInventory(1L, 12L)).thenReturn(1);
+
+        Assertions.assertEquals(2, inventoryReservations.reserve(TRACKED, 2));
+        Assertions.assertEquals(10, inventoryReservations.getLeasedUnits());
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(2, inventoryReservations.reserve(TRACKED, 2));
+        }
+
+        Assertions.assertEquals(0, inventoryReservations.getLeasedUnits());
+        Mockito.verify(productRepository, Mockito.times(1)).takeInventory(Mockito.anyLong(), Mockito.anyLong());
+    }
+
+    @Test
+    void testReserve_LessThanALeaseLeft_ExactUnitsTaken() {
+        Mockito.when(productRepository.takeInventory(1L, 13L)).thenReturn(0);
+        Mockito.when(productRepository.takeInventory(1L, 3L)).thenReturn(1);
+
+        Assertions.assertEquals(3, inventoryReservations.reserve(TRACKED, 3));
+        Assertions.assertEquals(0, inventoryReservations.getLeasedUnits());
+    }
+
+    @Test
+    void testReserve_NotEnoughInventory_Conflict() {
+        Mockito.when(productRepository.takeInventory(Mockito.eq(1L), Mockito.anyLong())).thenReturn(0);
+
+        CustomBusinessException exception = Assertions.assertThrows(CustomBusinessException.class,
+                () -> inventoryReservations.reserve(TRACKED, 3));
+        Assertions.assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+        Assertions.assertEquals("InsufficientInventoryError", exception.getCode());
+    }
+
+    @Test
+    void testReturnLeases_LeasedUnitsGivenBack() {
+        Mockito.when(productRepository.takeInventory(1L, 11L)).thenReturn(1);
+        inventoryReservations.reserve(TRACKED, 1);
+
+        inventoryReservations.returnLeases();
+
+        Mockito.verify(productRepository).returnInventory(1L, 10L);
+        Assertions.assertEquals(0, inventoryReservations.getLeasedUnits());
+    }
+
+    @Test
+    void testProductUpdated_LeaseReturnedAndDropped() {
+        Mockito.when(productRepository.takeInventory(1L, 11L)).thenReturn(1);
+        inventoryReservations.reserve(TRACKED, 1);
+        inventoryReservations.reserve(TRACKED, 3);
+
+        inventoryReservations.productUpdated(1L);
+
+        Mockito.verify(productRepository).returnInventory(1L, 7L);
+        Assertions.assertEquals(0, inventoryReservations.getLeasedUnits());
+        inventoryReservations.returnLeases();
+        Mockito.verify(productRepository, Mockito.times(1)).returnInventory(Mockito.anyLong(), Mockito.anyLong());
+    }
+
+    @Test
+    void testProductDeleted_LeaseDroppedWithoutReturn() {
+        Mockito.when(productRepository.takeInventory(1L, 11L)).thenReturn(1);
+        inventoryReservations.reserve(TRACKED, 1);
+
+        inventoryReservations.productDeleted(1L);
+
+        Assertions.assertEquals(0, inventoryReservations.getLeasedUnits());
+        inventoryReservations.returnLeases();
+        Mockito.verify(productRepository, Mockito.never()).returnInventory(Mockito.anyLong(), Mockito.anyLong());
+    }
+}
@@ -0,0 +1,18 @@
+package io.recruitment.assessment.api.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * The traffic of {@link ShopLoadTest} with every read waiting for a worker, as before the non-blocking reads, run
+ * along with it for a side by side comparison of the two modes on a database of its own.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load-blocking;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=false",
+        "sql-statistics.expose-headers=false",
+        "sql-statistics.fail-on-budget-exceeded=false",
+        "logging.level.io.recruitment.assessment=warn",
+        "api.executor.non-blocking-reads=false"
+})
+class BlockingReadsShopLoadTest extends ShopLoadTest {
+}
@@ -0,0 +1,75 @@
+package io.recruitment.assessment.api.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and errors of the load test by operation, recorded only once the warm-up is over.
+ */
+class LoadStatistics {
+
+    private final Map<String, Operation> operations = new ConcurrentSkipListMap<>();
+
+    private volatile boolean measuring;
+
+    private volatile long measuringSince;
+
+    private volatile long measuringUntil;
+
+    void startMeasuring() {
+        operations.clear();
+        measuringSince = System.nanoTime();
+        measuring = true;
+    }
+
+    void stopMeasuring() {
+        measuring = false;
+        measuringUntil = System.nanoTime();
+    }
+
+    void record(String operation, long latencyNanos, boolean success) {
+        if (!measuring) {
+            return;
+        }
+        Operation statistics = operations.computeIfAbsent(operation, name -> new Operation());
+        if (success) {
+            statistics.latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        } else {
+            statistics.errors.increment();
+        }
+    }
+
+    long totalRequests() {
+        return operations.values().stream().mapToLong(operation -> operation.latencies.getTotalCount() + operation.errors.sum()).sum();
+    }
+
+    long totalErrors() {
+        return operations.values().stream().mapToLong(operation -> operation.errors.sum()).sum();
+    }
+
+    String report() {
+        double seconds = (measuringUntil - measuringSince) / 1e9;
+        StringBuilder report = new StringBuilder(String.format("%n%-10s %10s %8s %10s %10s %10s %10s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms"));
+        operations.forEach((name, operation) -> {
+            Histogram latencies = operation.latencies;
+            long requests = latencies.getTotalCount() + operation.errors.sum();
+            report.append(String.format("%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f%n", name, requests,
+                    operation.errors.sum(), requests / seconds,
+                    latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getMaxValue() / 1000.0));
+        });
+        report.append(String.format("%-10s %10d %8d %10.1f%n", "total", totalRequests(), totalErrors(), totalRequests() / seconds));
+        return report.toString();
+    }
+
+    private static final class Operation {
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
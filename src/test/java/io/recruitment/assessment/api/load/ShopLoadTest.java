@@ -0,0 +1,269 @@
+package io.recruitment.assessment.api.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.recruitment.assessment.api.config.ApiTaskExecutor;
+import io.recruitment.assessment.api.service.ProductImportService;
+import io.recruitment.assessment.api.service.ProductImportReport;
+import io.recruitment.assessment.gen.model.AddProductRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a mix of browse, search and cart traffic against the application running on H2 in MySQL mode, and reports
+ * the latency percentiles and the throughput of every operation, and the workers the run needed. Excluded from the
+ * default build, run it with
+ * <pre>mvn -Pload test -Dload.users=100 -Dload.duration=PT2M</pre>
+ * which runs {@link BlockingReadsShopLoadTest} as well, the same traffic with the reads waiting for a worker.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=false",
+        "sql-statistics.expose-headers=false",
+        "sql-statistics.fail-on-budget-exceeded=false",
+        "logging.level.io.recruitment.assessment=warn"
+})
+@ActiveProfiles("h2")
+class ShopLoadTest {
+
+    private static final String[] SEARCH_TERMS = {"drill", "hammer", "saw", "wrench", "sander", "router", "grinder", "clamp"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApiTaskExecutor apiTaskExecutor;
+
+    /* Products imported before the run. */
+    @Value("${load.catalogue-size:10000}")
+    private int catalogueSize;
+
+    /* Concurrent users, each one sending its next request as soon as the previous one is answered. */
+    @Value("${load.users:50}")
+    private int users;
+
+    @Value("${load.warmup:PT10S}")
+    private Duration warmup;
+
+    @Value("${load.duration:PT30S}")
+    private Duration duration;
+
+    /* Relative weights of the operations picked by the users. */
+    @Value("${load.mix:browse=40,search=20,create=5,add=25,summary=10}")
+    private String mix;
+
+    /* Share of failed requests above which the run fails. */
+    @Value("${load.max-error-rate:0.01}")
+    private double maxErrorRate;
+
+    private final LoadStatistics statistics = new LoadStatistics();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String customerAuthorization = "Basic " + Base64.getEncoder()
+            .encodeToString("customer:customer_password".getBytes(StandardCharsets.UTF_8));
+
+    private List<Long> productIds;
+
+    @Test
+    void testShopTraffic() throws Exception {
+        seedCatalogue();
+        Map<String, Integer> weights = parseMix(mix);
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        log.warn("Load test starting, users={}, catalogue={}, warmup={}, duration={}, mix={}", users, catalogueSize, warmup, duration, weights);
+
+        long deadline = System.nanoTime() + warmup.plus(duration).toNanos();
+        ExecutorService userThreads = Executors.newFixedThreadPool(users);
+        List<Future<?>> runs = new ArrayList<>();
+        for (int user = 0; user < users; user++) {
+            runs.add(userThreads.submit(() -> runUser(weights, totalWeight, deadline)));
+        }
+        TimeUnit.NANOSECONDS.sleep(warmup.toNanos());
+        statistics.startMeasuring();
+        TimeUnit.NANOSECONDS.sleep(duration.toNanos());
+        statistics.stopMeasuring();
+        for (Future<?> run : runs) {
+            run.get();
+        }
+        userThreads.shutdown();
+
+        log.warn("Load test results of {}, users={}, duration={}, workers={}{}", getClass().getSimpleName(), users, duration,
+                apiTaskExecutor.getPoolSize(), statistics.report());
+        Assertions.assertTrue(statistics.totalRequests() > 0, "No request completed during the measurement.");
+        Assertions.assertTrue(statistics.totalErrors() <= statistics.totalRequests() * maxErrorRate,
+                statistics.totalErrors() + " of " + statistics.totalRequests() + " requests failed.");
+    }
+
+    private void seedCatalogue() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= catalogueSize; i++) {
+            String term = SEARCH_TERMS[i % SEARCH_TERMS.length];
+            body.append("{\"name\":\"Load ").append(term).append(' ').append(i)
+                    .append("\",\"description\":\"Load test ").append(term)
+                    .append("\",\"price\":\"").append(i % 500 + 1).append(".99\"}\n");
+        }
+        ProductImportReport report = productImportService.importProducts(
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)), ProductImportService.Format.NDJSON);
+        Assertions.assertEquals(catalogueSize, report.getImported(), "Catalogue seeding failed: " + report.getErrors());
+        productIds = new ArrayList<>();
+        fetchAllProductIds();
+    }
+
+    private void fetchAllProductIds() {
+        Long afterId = 0L;
+        while (afterId != null) {
+            try {
+                HttpResponse<String> response = send(get("/products/api/v1/list?pageSize=1000&afterId=" + afterId));
+                List<Long> page = new ArrayList<>();
+                objectMapper.readTree(response.body()).forEach(product -> page.add(product.get("product_id").asLong()));
+                productIds.addAll(page);
+                afterId = page.size() < 1000 ? null : page.get(page.size() - 1);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to list the seeded catalogue.", e);
+            }
+        }
+    }
+
+    private void runUser(Map<String, Integer> weights, int totalWeight, long deadline) {
+        String orderId = createOrder();
+        while (System.nanoTime() < deadline) {
+            int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+            String operation = null;
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                pick -= weight.getValue();
+                if (pick < 0) {
+                    operation = weight.getKey();
+                    break;
+                }
+            }
+            if ("create".equals(operation)) {
+                String created = createOrder();
+                orderId = created == null ? orderId : created;
+            } else {
+                execute(operation, request(operation, orderId));
+            }
+        }
+    }
+
+    private HttpRequest request(String operation, String orderId) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case "browse":
+                return get("/products/api/v1/list?pageSize=20&pageNo=" + random.nextInt(Math.max(1, catalogueSize / 20)));
+            case "search":
+                return get("/products/api/v1/list?pageSize=20&searchParam=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]);
+            case "add":
+                return HttpRequest.newBuilder(uri("/orders/api/v1/add/" + orderId))
+                        .header("Authorization", customerAuthorization)
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(addProductBody(productIds.get(random.nextInt(productIds.size())))))
+                        .build();
+            case "summary":
+                return get("/orders/api/v1/summary/" + orderId);
+            default:
+                throw new IllegalArgumentException("Unknown load test operation " + operation);
+        }
+    }
+
+    private String createOrder() {
+        HttpResponse<String> response = execute("create", HttpRequest.newBuilder(uri("/orders/api/v1/create"))
+                .header("Authorization", customerAuthorization)
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build());
+        try {
+            return response != null && response.statusCode() == 201
+                    ? objectMapper.readTree(response.body()).get("order_id").asText()
+                    : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private HttpResponse<String> execute(String operation, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            statistics.record(operation, System.nanoTime() - start, response.statusCode() < 400);
+            return response;
+        } catch (IOException e) {
+            statistics.record(operation, System.nanoTime() - start, false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", customerAuthorization).GET().build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private String addProductBody(long productId) {
+        try {
+            return objectMapper.writeValueAsString(new AddProductRequest().productId(productId).count(1L));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split("=");
+            weights.put(weight[0].trim(), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,93 @@
+package io.recruitment.assessment.api.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.recruitment.assessment.api.config.SqlStatisticsProperties;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.gen.model.AddProductRequest;
+import io.recruitment.assessment.gen.model.ShoppingCartData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Runs the main endpoints through the whole web stack and checks the statements of each request against its budget.
+ * The h2 profile also fails any request over its budget, whichever test issues it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class SqlQueryBudgetTest {
+
+    private static final String CUSTOMER = basicAuth("customer", "customer_password");
+
+    private static final String ADMIN = basicAuth("admin", "admin_password");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SqlStatisticsProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testOrderFlow_WithinTheStatementBudgets() throws Exception {
+        Products products = productRepository.save(Products.builder().name("Budget Drill").description("Product Description").price("10.00").build());
+
+        MvcResult created = call("POST /orders/api/v1/create", post("/orders/api/v1/create"), CUSTOMER);
+        String orderId = objectMapper.readValue(created.getResponse().getContentAsString(), ShoppingCartData.class).getOrderId();
+
+        for (int i = 0; i < 3; i++) {
+            call("PUT /orders/api/v1/add/{orderId}", put("/orders/api/v1/add/{orderId}", orderId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new AddProductRequest().productId(products.getId()).count(1L))), CUSTOMER);
+        }
+        call("GET /orders/api/v1/summary/{orderId}", get("/orders/api/v1/summary/{orderId}", orderId), CUSTOMER);
+    }
+
+    @Test
+    void testListings_WithinTheStatementBudgets() throws Exception {
+        call("GET /products/api/v1/list", get("/products/api/v1/list"), ADMIN);
+        call("GET /news/api/v1/list", get("/news/api/v1/list"), ADMIN);
+    }
+
+    private MvcResult call(String endpoint, MockHttpServletRequestBuilder request, String authorization) throws Exception {
+        MvcResult started = mockMvc.perform(request
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .header("Idempotency-Key", UUID.randomUUID().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult completed = mockMvc.perform(asyncDispatch(started)).andReturn();
+
+        Assertions.assertTrue(completed.getResponse().getStatus() < 300, endpoint + " failed: " + completed.getResponse().getContentAsString());
+        long statements = Long.parseLong(completed.getResponse().getHeader(SqlStatisticsHeadersAdvice.STATEMENTS_HEADER));
+        Integer budget = properties.getBudgets().get(endpoint);
+        Assertions.assertNotNull(budget, "No budget configured for " + endpoint);
+        Assertions.assertTrue(statements <= budget, endpoint + " issued " + statements + " statements, budget " + budget);
+        return completed;
+    }
+
+    private static String basicAuth(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package io.recruitment.assessment.api.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.validator.OrderBusinessValidator;
+import io.recruitment.assessment.gen.api.NewsApiDelegate;
+import io.recruitment.assessment.gen.model.NewsCatalogueResponseData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+class StageTimingAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StageTimingAspect stageTimingAspect;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        stageTimingAspect = new StageTimingAspect(meterRegistry);
+    }
+
+    @Test
+    void testValidator_ErrorTaggedWithTheBusinessErrorCode() {
+        OrderBusinessValidator validator = proxy(new OrderBusinessValidator());
+
+        Assertions.assertThrows(CustomBusinessException.class, () -> validator.validateGetOrderSummaryRequest(null));
+
+        Timer timer = meterRegistry.get(StageTimingAspect.TIMER)
+                .tag("stage", "validator")
+                .tag("component", "OrderBusinessValidator")
+                .tag("method", "validateGetOrderSummaryRequest")
+                .tag("outcome", "error")
+                .tag("error", "BusinessValidationError")
+                .timer();
+        Assertions.assertEquals(1, timer.count());
+    }
+
+    @Test
+    void testDelegate_TimedUntilTheFutureCompletes() {
+        CompletableFuture<ResponseEntity<List<NewsCatalogueResponseData>>> response = new CompletableFuture<>();
+        NewsApiDelegate target = Mockito.mock(NewsApiDelegate.class);
+        Mockito.when(target.newsApiV1ListGet(0L, 10L, null)).thenReturn(response);
+        NewsApiDelegate delegate = proxy(target);
+
+        Assertions.assertSame(response, delegate.newsApiV1ListGet(0L, 10L, null));
+        Assertions.assertNull(meterRegistry.find(StageTimingAspect.TIMER).timer());
+        response.complete(ResponseEntity.ok(Collections.emptyList()));
+
+        Timer timer = meterRegistry.get(StageTimingAspect.TIMER)
+                .tag("stage", "delegate")
+                .tag("component", "NewsApiDelegate")
+                .tag("method", "newsApiV1ListGet")
+                .tag("outcome", "success")
+                .timer();
+        Assertions.assertEquals(1, timer.count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        /* The validators have no interface to proxy, the mocked delegate is proxied by its interface. */
+        proxyFactory.setProxyTargetClass(target.getClass().getInterfaces().length == 0);
+        proxyFactory.addAspect(stageTimingAspect);
+        return (T) proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,122 @@
+package io.recruitment.assessment.api.reaper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.recruitment.assessment.api.cache.OrderSummaryCache;
+import io.recruitment.assessment.api.config.IdempotencyProperties;
+import io.recruitment.assessment.api.config.OrderSummaryCacheProperties;
+import io.recruitment.assessment.api.config.ReaperProperties;
+import io.recruitment.assessment.api.inventory.InventoryReservations;
+import io.recruitment.assessment.api.repository.IdempotencyRepository;
+import io.recruitment.assessment.api.repository.NewsRepository;
+import io.recruitment.assessment.api.repository.OrderRepository;
+import io.recruitment.assessment.gen.model.ShoppingCartData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+class DataReaperTest {
+
+    private NewsRepository newsRepository;
+
+    private OrderRepository orderRepository;
+
+    private IdempotencyRepository idempotencyRepository;
+
+    private OrderSummaryCache orderSummaryCache;
+
+    private InventoryReservations inventoryReservations;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DataReaper dataReaper;
+
+    @BeforeEach
+    public void init() {
+        newsRepository = Mockito.mock(NewsRepository.class);
+        orderRepository = Mockito.mock(OrderRepository.class);
+        idempotencyRepository = Mockito.mock(IdempotencyRepository.class);
+        orderSummaryCache = new OrderSummaryCache(new OrderSummaryCacheProperties());
+        inventoryReservations = Mockito.mock(InventoryReservations.class);
+        meterRegistry = new SimpleMeterRegistry();
+        ReaperProperties properties = new ReaperProperties();
+        properties.setChunkSize(2);
+        properties.setChunkPause(Duration.ZERO);
+        dataReaper = new DataReaper(newsRepository, orderRepository, idempotencyRepository, orderSummaryCache,
+                inventoryReservations, properties, new IdempotencyProperties(), Mockito.mock(PlatformTransactionManager.class), meterRegistry);
+    }
+
+    @Test
+    void testPurgeExpiredNews_DeletedByChunks() {
+        Mockito.when(newsRepository.findIdsExpiredBefore(Mockito.any(Timestamp.class), Mockito.any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        Mockito.when(newsRepository.deleteByIds(Mockito.anyCollection())).thenReturn(2, 2, 1);
+
+        long deleted = dataReaper.purgeExpiredNews();
+
+        Assertions.assertEquals(5, deleted);
+        Mockito.verify(newsRepository, Mockito.times(3)).deleteByIds(Mockito.anyCollection());
+        Assertions.assertEquals(5.0, meterRegistry.get("reaper.deleted").tag("table", "news").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("reaper.run").tag("table", "news").timer().count());
+    }
+
+    @Test
+    void testPurgeAbandonedCarts_CachedSummariesInvalidated() {
+        orderSummaryCache.put("Order1", 1L, new ShoppingCartData().orderId("Order1"));
+        Mockito.when(orderRepository.findIdsUntouchedSince(Mockito.any(Timestamp.class), Mockito.any(Pageable.class)))
+                .thenReturn(List.of("Order1"));
+        Mockito.when(orderRepository.lockUntouchedOrders(Mockito.anyCollection(), Mockito.any(Timestamp.class)))
+                .thenReturn(List.of("Order1"));
+        Mockito.when(orderRepository.deleteUntouchedOrders(Mockito.anyCollection(), Mockito.any(Timestamp.class))).thenReturn(1);
+
+        long deleted = dataReaper.purgeAbandonedCarts();
+
+        Assertions.assertEquals(1, deleted);
+        Assertions.assertNull(orderSummaryCache.get("Order1"));
+        Mockito.verify(orderRepository).deleteItemsOfUntouchedOrders(Mockito.eq(List.of("Order1")), Mockito.any(Timestamp.class));
+    }
+
+    @Test
+    void testPurgeAbandonedCarts_ReservedInventoryReleased() {
+        Mockito.when(orderRepository.findIdsUntouchedSince(Mockito.any(Timestamp.class), Mockito.any(Pageable.class)))
+                .thenReturn(List.of("Order1", "Order2"), Collections.emptyList());
+        /* Order2 has been changed since its id was selected. */
+        Mockito.when(orderRepository.lockUntouchedOrders(Mockito.anyCollection(), Mockito.any(Timestamp.class)))
+                .thenReturn(List.of("Order1"));
+        Mockito.when(orderRepository.sumReservedCounts(List.of("Order1")))
+                .thenReturn(List.<Object[]>of(new Object[]{BigInteger.valueOf(7), BigDecimal.valueOf(3)}));
+        Mockito.when(orderRepository.deleteUntouchedOrders(Mockito.anyCollection(), Mockito.any(Timestamp.class))).thenReturn(1);
+
+        Assertions.assertEquals(1, dataReaper.purgeAbandonedCarts());
+        Mockito.verify(inventoryReservations).release(7L, 3L);
+        Mockito.verify(orderRepository).deleteUntouchedOrders(Mockito.eq(List.of("Order1")), Mockito.any(Timestamp.class));
+    }
+
+    @Test
+    void testPurge_StopsWhenAChunkDeletesNothing() {
+        Mockito.when(idempotencyRepository.findIdsCreatedBefore(Mockito.any(Timestamp.class), Mockito.any(Pageable.class)))
+                .thenReturn(List.of("Key1", "Key2"));
+        Mockito.when(idempotencyRepository.deleteByIds(Mockito.anyCollection())).thenReturn(0);
+
+        Assertions.assertEquals(0, dataReaper.purgeExpiredIdempotencyKeys());
+        Mockito.verify(idempotencyRepository, Mockito.times(1)).deleteByIds(Mockito.anyCollection());
+    }
+
+    @Test
+    void testPurge_NothingToDelete() {
+        Mockito.when(newsRepository.findIdsExpiredBefore(Mockito.any(Timestamp.class), Mockito.any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        Assertions.assertEquals(0, dataReaper.purgeExpiredNews());
+        Mockito.verify(newsRepository, Mockito.never()).deleteByIds(Mockito.anyCollection());
+    }
+}
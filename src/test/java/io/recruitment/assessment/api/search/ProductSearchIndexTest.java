@@ -0,0 +1,116 @@
+package io.recruitment.assessment.api.search;
+
+import io.recruitment.assessment.api.config.ProductSearchProperties;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+class ProductSearchIndexTest {
+
+    private ProductRepository productRepository;
+
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    public void init() {
+        productRepository = Mockito.mock(ProductRepository.class);
+        Mockito.when(productRepository.findByIdGreaterThan(Mockito.eq(0L), Mockito.any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(
+                        product(1L, "Drill bit", "Drill bits with size 2cm."),
+                        product(2L, "Hammer", "Hammer for drill anchors."),
+                        product(3L, "Cordless drill", "Battery drill with 2 bits."),
+                        product(4L, "Screwdriver", "Flat head screwdriver."))));
+        productSearchIndex = new ProductSearchIndex(productRepository, new ProductSearchProperties());
+        productSearchIndex.load();
+    }
+
+    @Test
+    void testSearch_NameContainsTheSearch() {
+        Assertions.assertTrue(productSearchIndex.isReady());
+        Assertions.assertEquals(List.of(1L, 3L, 4L), ids(productSearchIndex.search("dri", 0, 10, false)));
+        Assertions.assertEquals(List.of(4L), ids(productSearchIndex.search("SCREW", 0, 10, false)));
+        Assertions.assertEquals(List.of(4L), ids(productSearchIndex.search("river", 0, 10, false)));
+        Assertions.assertEquals(List.of(1L, 3L), ids(productSearchIndex.search("ll", 0, 10, false)));
+        Assertions.assertEquals(List.of(), ids(productSearchIndex.search("saw", 0, 10, false)));
+        Assertions.assertEquals(List.of(), ids(productSearchIndex.search("anchor", 0, 10, false)));
+    }
+
+    @Test
+    void testSearch_WholeSearchMustBeContained() {
+        Assertions.assertEquals(List.of(1L), ids(productSearchIndex.search("drill bit", 0, 10, false)));
+        Assertions.assertEquals(List.of(), ids(productSearchIndex.search("bit drill", 0, 10, false)));
+    }
+
+    @Test
+    void testSearch_Paging() {
+        Assertions.assertEquals(List.of(1L, 3L), ids(productSearchIndex.search("dri", 0, 2, false)));
+        Assertions.assertEquals(List.of(4L), ids(productSearchIndex.search("dri", 1, 2, false)));
+        Assertions.assertEquals(List.of(4L), ids(productSearchIndex.search("dri", 1, 2, true)));
+    }
+
+    @Test
+    void testSearchAfter_ContinuesFromTheCursor() {
+        Slice<Products> first = productSearchIndex.searchAfter("dri", 0L, 2);
+        Slice<Products> second = productSearchIndex.searchAfter("dri", 3L, 2);
+
+        Assertions.assertEquals(List.of(1L, 3L), ids(first.getContent()));
+        Assertions.assertTrue(first.hasNext());
+        Assertions.assertEquals(List.of(4L), ids(second.getContent()));
+        Assertions.assertFalse(second.hasNext());
+        Assertions.assertEquals(List.of(3L, 4L), ids(productSearchIndex.searchAfter("r", 2L, 2).getContent()));
+        Assertions.assertFalse(productSearchIndex.searchAfter("saw", 0L, 2).hasContent());
+    }
+
+    @Test
+    void testSearch_ByRelevance_ExactNameThenWordStartFirst() {
+        productSearchIndex.index(product(5L, "Hammerdrill", "Hammer drill."));
+        productSearchIndex.index(product(6L, "Drill", "Drill."));
+
+        Assertions.assertEquals(List.of(6L, 1L, 3L, 5L), ids(productSearchIndex.search("drill", 0, 10, true)));
+    }
+
+    @Test
+    void testIndexAndRemove_Incremental() {
+        productSearchIndex.index(product(2L, "Sledge hammer", "Heavy hammer."));
+        productSearchIndex.index(product(5L, "Drill press", "Bench drill."));
+        productSearchIndex.remove(1L);
+
+        Assertions.assertEquals(List.of(3L, 5L), ids(productSearchIndex.search("drill", 0, 10, false)));
+        Assertions.assertEquals(List.of(2L), ids(productSearchIndex.search("sledge", 0, 10, false)));
+    }
+
+    @Test
+    void testRefresh_PicksUpProductsChangedElsewhere() {
+        Mockito.when(productRepository.findByIdGreaterThan(Mockito.eq(0L), Mockito.any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(
+                        product(2L, "Hammer", "Hammer for drill anchors."),
+                        product(3L, "Cordless saw", "Battery saw."),
+                        product(4L, "Screwdriver", "Flat head screwdriver."),
+                        product(6L, "Drill stand", "Stand for drills.")), PageRequest.of(0, 4), true));
+        Mockito.when(productRepository.findByIdGreaterThan(Mockito.eq(6L), Mockito.any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(product(7L, "Wall plug", "Plugs for drill holes."))));
+
+        productSearchIndex.refresh();
+
+        Assertions.assertEquals(List.of(6L), ids(productSearchIndex.search("drill", 0, 10, false)));
+        Assertions.assertEquals(List.of(3L), ids(productSearchIndex.search("saw", 0, 10, false)));
+        Assertions.assertEquals(List.of(), ids(productSearchIndex.search("bit", 0, 10, false)));
+    }
+
+    private static List<Long> ids(List<Products> products) {
+        return products.stream().map(Products::getId).collect(Collectors.toList());
+    }
+
+    private static Products product(Long id, String name, String description) {
+        return Products.builder().id(id).name(name).description(description).price("100.00").build();
+    }
+}
@@ -0,0 +1,186 @@
+package io.recruitment.assessment.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.recruitment.assessment.api.config.IdempotencyProperties;
+import io.recruitment.assessment.api.dvo.Idempotency;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.repository.IdempotencyRepository;
+import io.recruitment.assessment.gen.model.ProductCatalogueResponseData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class IdempotencyServiceTest {
+
+    private IdempotencyRepository idempotencyRepository;
+
+    private IdempotencyService idempotencyService;
+
+    private AtomicInteger executions;
+
+    @BeforeEach
+    public void init() {
+        idempotencyRepository = Mockito.mock(IdempotencyRepository.class);
+        idempotencyService = new IdempotencyService(idempotencyRepository, new IdempotencyProperties(),
+                new ObjectMapper().findAndRegisterModules());
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void testExecute_Success() {
+        Mockito.when(idempotencyRepository.insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class))).thenReturn(1);
+
+        ResponseEntity<ProductCatalogueResponseData> response = execute("IdemPotencyKey");
+
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        Assertions.assertEquals(1, executions.get());
+        Mockito.verify(idempotencyRepository, Mockito.times(1))
+                .storeResponse(Mockito.eq("IdemPotencyKey"), Mockito.eq(201), Mockito.any(byte[].class));
+    }
+
+    @Test
+    void testExecute_RepeatedKey_ReplaysStoredResponse() {
+        Mockito.when(idempotencyRepository.insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class))).thenReturn(1);
+        execute("IdemPotencyKey");
+        ArgumentCaptor<byte[]> storedBody = ArgumentCaptor.forClass(byte[].class);
+        Mockito.verify(idempotencyRepository).storeResponse(Mockito.anyString(), Mockito.anyInt(), storedBody.capture());
+        Mockito.when(idempotencyRepository.findById("IdemPotencyKey"))
+                .thenReturn(Optional.of(new Idempotency("IdemPotencyKey", null, 201, storedBody.getValue())));
+
+        ResponseEntity<ProductCatalogueResponseData> response = execute("IdemPotencyKey");
+
+        Assertions.assertEquals(1, executions.get());
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        Assertions.assertEquals("true", response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        Assertions.assertEquals(1234L, response.getBody().getProductId());
+        Assertions.assertEquals("100.00", response.getBody().getPrice());
+        Mockito.verify(idempotencyRepository, Mockito.times(1))
+                .insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class));
+    }
+
+    @Test
+    void testExecute_Failed_RequestStillInProgress() {
+        Mockito.when(idempotencyRepository.insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class))).thenReturn(0);
+        Mockito.when(idempotencyRepository.findById("IdemPotencyKey"))
+                .thenReturn(Optional.of(Idempotency.builder().id("IdemPotencyKey").build()));
+
+        CustomBusinessException e = Assertions.assertThrows(CustomBusinessException.class, () -> execute("IdemPotencyKey"));
+
+        Assertions.assertEquals(HttpStatus.CONFLICT, e.getHttpStatus());
+        Assertions.assertEquals(0, executions.get());
+    }
+
+    @Test
+    void testExecute_Failed_ResponseNotStored() {
+        Mockito.when(idempotencyRepository.insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class))).thenReturn(0);
+        Mockito.when(idempotencyRepository.findById("IdemPotencyKey"))
+                .thenReturn(Optional.of(Idempotency.builder().id("IdemPotencyKey").responseStatus(201).build()));
+
+        CustomBusinessException e = Assertions.assertThrows(CustomBusinessException.class, () -> execute("IdemPotencyKey"));
+
+        Assertions.assertEquals("Invalid Idempotency Key, already exists.", e.getMessage());
+    }
+
+    @Test
+    void testExecute_ResponseStoreFailed_KeyCompletedWithoutResponse() {
+        Mockito.when(idempotencyRepository.insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class))).thenReturn(1);
+        Mockito.when(idempotencyRepository.storeResponse(Mockito.eq("IdemPotencyKey"), Mockito.eq(201), Mockito.any(byte[].class)))
+                .thenThrow(new IllegalStateException("Response column rejected"));
+
+        ResponseEntity<ProductCatalogueResponseData> response = execute("IdemPotencyKey");
+
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        /* Not left in progress, a retry gets the already exists error instead of a conflict. */
+        Mockito.verify(idempotencyRepository, Mockito.times(1))
+                .storeResponse(Mockito.eq("IdemPotencyKey"), Mockito.eq(201), Mockito.isNull());
+    }
+
+    @Test
+    void testExecute_KeyLeftInProgressPastLease_RequestExecutedAgain() {
+        Timestamp crashedAt = new Timestamp(System.currentTimeMillis() - Duration.ofMinutes(5).toMillis());
+        Mockito.when(idempotencyRepository.insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class))).thenReturn(0);
+        Mockito.when(idempotencyRepository.findById("IdemPotencyKey"))
+                .thenReturn(Optional.of(Idempotency.builder().id("IdemPotencyKey").createDate(crashedAt).build()));
+        Mockito.when(idempotencyRepository.reclaimKey(Mockito.eq("IdemPotencyKey"), Mockito.any(Timestamp.class), Mockito.any(Timestamp.class)))
+                .thenReturn(1);
+
+        ResponseEntity<ProductCatalogueResponseData> response = execute("IdemPotencyKey");
+
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        Assertions.assertEquals(1, executions.get());
+        Mockito.verify(idempotencyRepository, Mockito.times(1))
+                .storeResponse(Mockito.eq("IdemPotencyKey"), Mockito.eq(201), Mockito.any(byte[].class));
+    }
+
+    @Test
+    void testExecute_KeyInProgressWithinLease_Conflict() {
+        Mockito.when(idempotencyRepository.insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class))).thenReturn(0);
+        Mockito.when(idempotencyRepository.findById("IdemPotencyKey")).thenReturn(Optional.of(Idempotency.builder()
+                .id("IdemPotencyKey").createDate(new Timestamp(System.currentTimeMillis())).build()));
+
+        CustomBusinessException e = Assertions.assertThrows(CustomBusinessException.class, () -> execute("IdemPotencyKey"));
+
+        Assertions.assertEquals(HttpStatus.CONFLICT, e.getHttpStatus());
+        Assertions.assertEquals(0, executions.get());
+        Mockito.verify(idempotencyRepository, Mockito.never())
+                .reclaimKey(Mockito.anyString(), Mockito.any(Timestamp.class), Mockito.any(Timestamp.class));
+    }
+
+    @Test
+    void testExecute_Failed_EmptyKey() {
+        CustomBusinessException e = Assertions.assertThrows(CustomBusinessException.class, () -> execute(" "));
+
+        Assertions.assertEquals("DataValidationError", e.getCode());
+        Mockito.verifyNoInteractions(idempotencyRepository);
+    }
+
+    @Test
+    void testExecute_KeyReleased_WhenRequestFails() {
+        Mockito.when(idempotencyRepository.insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class))).thenReturn(1);
+
+        Assertions.assertThrows(CustomBusinessException.class, () -> idempotencyService.execute("IdemPotencyKey",
+                ProductCatalogueResponseData.class, () -> {
+                    throw new CustomBusinessException(HttpStatus.BAD_REQUEST, "BusinessValidationError", "Invalid request.");
+                }));
+        execute("IdemPotencyKey");
+
+        Mockito.verify(idempotencyRepository, Mockito.times(1)).deleteKey("IdemPotencyKey");
+        Assertions.assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecute_OldestKeysEvicted_WhenCacheFull() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaxCachedKeys(1);
+        idempotencyService = new IdempotencyService(idempotencyRepository, properties, new ObjectMapper());
+        Mockito.when(idempotencyRepository.insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class))).thenReturn(1, 1, 0);
+
+        execute("FirstKey");
+        execute("SecondKey");
+        Assertions.assertThrows(CustomBusinessException.class, () -> execute("FirstKey"));
+
+        /* The evicted key has been detected by the database instead of the memory. */
+        Mockito.verify(idempotencyRepository, Mockito.times(3))
+                .insertIfAbsent(Mockito.anyString(), Mockito.any(Timestamp.class));
+    }
+
+    private ResponseEntity<ProductCatalogueResponseData> execute(String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, ProductCatalogueResponseData.class, () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<>(new ProductCatalogueResponseData()
+                    .productId(1234L)
+                    .name("Product Name")
+                    .description("Product Description")
+                    .price("100.00"), HttpStatus.CREATED);
+        });
+    }
+}
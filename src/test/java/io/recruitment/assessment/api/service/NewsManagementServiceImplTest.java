@@ -1,5 +1,9 @@
 package io.recruitment.assessment.api.service;
 
+import io.recruitment.assessment.api.cache.ActiveNewsCache;
+import io.recruitment.assessment.api.config.ApiExecutorProperties;
+import io.recruitment.assessment.api.config.ApiTaskExecutor;
+import io.recruitment.assessment.api.config.NewsCacheProperties;
 import io.recruitment.assessment.api.dvo.News;
 import io.recruitment.assessment.api.exception.CustomBusinessException;
 import io.recruitment.assessment.api.repository.NewsRepository;
@@ -8,17 +12,25 @@ import io.recruitment.assessment.gen.api.NewsApiDelegate;
 import io.recruitment.assessment.gen.model.AddNewsRequest;
 import io.recruitment.assessment.gen.model.NewsCatalogueResponseData;
 import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 import java.awt.print.Pageable;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,6 +42,8 @@ class NewsManagementServiceImplTest {
 
     private NewsBusinessValidator businessValidator;
 
+    private IdempotencyService idempotencyService;
+
     private NewsApiDelegate newsApiDelegate;
 
 
@@ -37,13 +51,17 @@ class NewsManagementServiceImplTest {
     public void init() {
         newsRepository = Mockito.mock(NewsRepository.class);
         businessValidator = Mockito.mock(NewsBusinessValidator.class);
-        newsApiDelegate = new NewsManagementServiceImpl(newsRepository, businessValidator);
+        idempotencyService = Mockito.mock(IdempotencyService.class);
+        Mockito.when(idempotencyService.execute(Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        newsApiDelegate = new NewsManagementServiceImpl(newsRepository, businessValidator, idempotencyService,
+                new ApiTaskExecutor(new ApiExecutorProperties()), new ActiveNewsCache(newsRepository, new NewsCacheProperties()));
     }
 
     @Test
     void testNewsApiV1AddPost_Success() {
         Mockito.doNothing().when(businessValidator).validateNewsCreateRequest(
-                Mockito.anyString(), Mockito.any(AddNewsRequest.class));
+                Mockito.any(AddNewsRequest.class));
         Mockito.when(newsRepository.save(Mockito.any(News.class)))
                 .thenReturn(News.builder().id(1234L).title("News Title").description("News Description").build());
 
@@ -58,11 +76,29 @@ class NewsManagementServiceImplTest {
         });
     }
 
+    @Test
+    void testNewsApiV1AddPost_ExpiryDateKeepsTheInstantOfItsOffset() {
+        OffsetDateTime expiryDate = OffsetDateTime.of(2030, 1, 1, 12, 0, 0, 0, ZoneOffset.ofHours(5));
+        Mockito.when(newsRepository.save(Mockito.any(News.class))).thenAnswer(invocation -> {
+            News news = invocation.getArgument(0);
+            return News.builder().id(4321L).title(news.getTitle()).description(news.getDescription())
+                    .expiryDate(news.getExpiryDate()).build();
+        });
+
+        NewsCatalogueResponseData newsCatalogueResponseData = newsApiDelegate.newsApiV1AddPost("idempotencyKey",
+                new AddNewsRequest().title("News Title").description("News Description").expiryDate(expiryDate)).join().getBody();
+
+        ArgumentCaptor<News> saved = ArgumentCaptor.forClass(News.class);
+        Mockito.verify(newsRepository, Mockito.atLeastOnce()).save(saved.capture());
+        Assertions.assertEquals(expiryDate.toInstant(), saved.getValue().getExpiryDate().toInstant());
+        Assertions.assertEquals(expiryDate.toInstant(), newsCatalogueResponseData.getExpiryDate().toInstant());
+    }
+
     @Test
     void testNewsApiV1AddPost_Failed_ValidationError() {
         Mockito.doThrow(new CustomBusinessException(HttpStatus.BAD_REQUEST, "BadRequest", "Request contains invalid details"))
                 .when(businessValidator).validateNewsCreateRequest(
-                Mockito.anyString(), Mockito.any(AddNewsRequest.class));
+                Mockito.any(AddNewsRequest.class));
         try {
             newsApiDelegate.newsApiV1AddPost("idempotencyKey", new AddNewsRequest());
         } catch (Exception e) {
@@ -77,11 +113,11 @@ class NewsManagementServiceImplTest {
         newsList.add(News.builder().id(1234L).title("News Title").description("News Description").build());
         newsList.add(News.builder().id(1234L).title("News Title").description("News Description").build());
         Mockito.doNothing().when(businessValidator).validateNewsCreateRequest(
-                Mockito.anyString(), Mockito.any(AddNewsRequest.class));
-        Mockito.when(newsRepository.findAll(Mockito.any(PageRequest.class)))
+                Mockito.any(AddNewsRequest.class));
+        Mockito.when(newsRepository.findByExpiryDateAfter(Mockito.any(Timestamp.class), Mockito.any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(newsList));
 
-        newsApiDelegate.newsApiV1ListGet(1L, 2L)
+        newsApiDelegate.newsApiV1ListGet(1L, 2L, null)
                 .thenApply(listResponseEntity -> {
                     List<NewsCatalogueResponseData> dataList = listResponseEntity.getBody();
                     Assertions.assertEquals(2, dataList.size());
@@ -94,11 +130,11 @@ class NewsManagementServiceImplTest {
     void testNewsApiV1ListGet_Success_NoRecords() {
         List<News> newsList = new ArrayList<>();
         Mockito.doNothing().when(businessValidator).validateNewsCreateRequest(
-                Mockito.anyString(), Mockito.any(AddNewsRequest.class));
-        Mockito.when(newsRepository.findAll(Mockito.any(PageRequest.class)))
+                Mockito.any(AddNewsRequest.class));
+        Mockito.when(newsRepository.findByExpiryDateAfter(Mockito.any(Timestamp.class), Mockito.any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(newsList));
 
-        newsApiDelegate.newsApiV1ListGet(1L, 2L)
+        newsApiDelegate.newsApiV1ListGet(1L, 2L, null)
                 .thenApply(listResponseEntity -> {
                     List<NewsCatalogueResponseData> dataList = listResponseEntity.getBody();
                     Assertions.assertEquals(0, dataList.size());
@@ -106,4 +142,20 @@ class NewsManagementServiceImplTest {
                     return listResponseEntity;
                 });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testNewsApiV1ListGet_AfterId_NextCursorReturned() {
+        List<News> newsList = new ArrayList<>();
+        newsList.add(News.builder().id(11L).title("News Title").description("News Description")
+                .expiryDate(Timestamp.valueOf(LocalDateTime.now())).build());
+        newsList.add(News.builder().id(12L).title("News Title").description("News Description")
+                .expiryDate(Timestamp.valueOf(LocalDateTime.now())).build());
+        Mockito.when(newsRepository.findByExpiryDateAfterAndIdGreaterThan(Mockito.any(Timestamp.class), Mockito.eq(10L), Mockito.any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(newsList, PageRequest.of(0, 2), true));
+
+        ResponseEntity<List<NewsCatalogueResponseData>> responseEntity = newsApiDelegate.newsApiV1ListGet(null, 2L, 10L).join();
+
+        Assertions.assertEquals(2, responseEntity.getBody().size());
+        Assertions.assertEquals("12", responseEntity.getHeaders().getFirst(CursorPages.NEXT_CURSOR_HEADER));
+    }
+}
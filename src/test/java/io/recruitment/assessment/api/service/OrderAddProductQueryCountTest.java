@@ -0,0 +1,79 @@
+package io.recruitment.assessment.api.service;
+
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.gen.api.OrdersApiDelegate;
+import io.recruitment.assessment.gen.model.AddProductRequest;
+import io.recruitment.assessment.gen.model.ShoppingCartData;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Measures the statements issued by the add-to-cart API against an in-memory database while the cart grows,
+ * the add has to cost the same number of statements whatever the size of the cart.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("h2")
+class OrderAddProductQueryCountTest {
+
+    private static final int CART_SIZE = 50;
+
+    @Autowired
+    private OrdersApiDelegate ordersApiDelegate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testOrdersApiV1AddOrderIdPut_StatementCountIndependentOfCartSize() {
+        List<Products> products = new ArrayList<>();
+        for (int i = 0; i < CART_SIZE; i++) {
+            products.add(Products.builder().name("Product" + i).description("Product Description").price("10.00").inventory(100L).build());
+        }
+        productRepository.saveAll(products);
+        String orderId = ordersApiDelegate.ordersApiV1CreatePost(UUID.randomUUID().toString()).join().getBody().getOrderId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long[] statements = new long[CART_SIZE];
+        for (int i = 0; i < CART_SIZE; i++) {
+            statistics.clear();
+            long start = System.nanoTime();
+            ShoppingCartData data = ordersApiDelegate.ordersApiV1AddOrderIdPut(UUID.randomUUID().toString(), orderId,
+                    new AddProductRequest().productId(products.get(i).getId()).count(1L)).join().getBody();
+            long elapsedMicros = (System.nanoTime() - start) / 1000;
+            statements[i] = statistics.getPrepareStatementCount();
+
+            Assertions.assertEquals(i + 1, data.getItems().size());
+            log.info("cartSize={} statements={} latency={}us", i + 1, statements[i], elapsedMicros);
+        }
+
+        for (int i = 1; i < CART_SIZE; i++) {
+            Assertions.assertEquals(statements[0], statements[i], "Statements issued for cart size " + (i + 1));
+        }
+
+        /* Adding a product already in the cart is served from the cached product, without a product select. */
+        statistics.clear();
+        ShoppingCartData data = ordersApiDelegate.ordersApiV1AddOrderIdPut(UUID.randomUUID().toString(), orderId,
+                new AddProductRequest().productId(products.get(0).getId()).count(2L)).join().getBody();
+        Assertions.assertEquals(CART_SIZE, data.getItems().size());
+        Assertions.assertEquals(3L, data.getItems().stream()
+                .filter(item -> item.getProductId().equals(products.get(0).getId()))
+                .findFirst().get().getCount());
+        Assertions.assertTrue(statistics.getPrepareStatementCount() < statements[0]);
+    }
+}
@@ -0,0 +1,84 @@
+package io.recruitment.assessment.api.service;
+
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.gen.api.OrdersApiDelegate;
+import io.recruitment.assessment.gen.model.AddProductRequest;
+import io.recruitment.assessment.gen.model.ProductItemData;
+import io.recruitment.assessment.gen.model.ShoppingCartData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Hammers a single cart with parallel adds, every increment has to be found in the cart afterwards.
+ */
+@SpringBootTest(properties = "orders.max-update-attempts=100")
+@ActiveProfiles("h2")
+class OrderConcurrentUpdateTest {
+
+    private static final int THREADS = 8;
+
+    private static final int ADDS_PER_THREAD = 30;
+
+    private static final int PRODUCTS = 3;
+
+    @Autowired
+    private OrdersApiDelegate ordersApiDelegate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void testOrdersApiV1AddOrderIdPut_ParallelAdds_NoLostIncrements() throws InterruptedException {
+        List<Products> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(Products.builder().name("Product" + i).description("Product Description").price("1.00").inventory(100L).build());
+        }
+        productRepository.saveAll(products);
+        String orderId = ordersApiDelegate.ordersApiV1CreatePost(UUID.randomUUID().toString()).join().getBody().getOrderId();
+
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            clients.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                        ordersApiDelegate.ordersApiV1AddOrderIdPut(UUID.randomUUID().toString(), orderId,
+                                new AddProductRequest().productId(products.get(i % PRODUCTS).getId()).count(1L)).join();
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        clients.shutdown();
+        Assertions.assertTrue(clients.awaitTermination(2, TimeUnit.MINUTES));
+
+        Assertions.assertTrue(failures.isEmpty(), () -> "Failed adds: " + failures);
+        ShoppingCartData data = ordersApiDelegate.ordersApiV1SummaryOrderIdGet(orderId, null).join().getBody();
+        Map<Long, Long> counts = data.getItems().stream()
+                .collect(Collectors.toMap(ProductItemData::getProductId, ProductItemData::getCount));
+        Assertions.assertEquals(PRODUCTS, counts.size());
+        for (Products product : products) {
+            Assertions.assertEquals((long) THREADS * ADDS_PER_THREAD / PRODUCTS, counts.get(product.getId()));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.recruitment.assessment.api.service;
+
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.inventory.InventoryReservations;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.gen.api.OrdersApiDelegate;
+import io.recruitment.assessment.gen.model.AddProductRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class OrderInventoryReservationTest {
+
+    private static final int THREADS = 8;
+
+    private static final int ADDS_PER_THREAD = 10;
+
+    private static final long INVENTORY = 30;
+
+    @Autowired
+    private OrdersApiDelegate ordersApiDelegate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryReservations inventoryReservations;
+
+    @Test
+    void testOrdersApiV1AddOrderIdPut_HotProduct_NeverOversold() throws InterruptedException {
+        Products products = productRepository.save(Products.builder().name("FlashSale").description("Product Description")
+                .price("1.00").inventory(INVENTORY).build());
+
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            clients.execute(() -> {
+                try {
+                    String orderId = ordersApiDelegate.ordersApiV1CreatePost(UUID.randomUUID().toString()).join().getBody().getOrderId();
+                    start.await();
+                    for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                        try {
+                            ordersApiDelegate.ordersApiV1AddOrderIdPut(UUID.randomUUID().toString(), orderId,
+                                    new AddProductRequest().productId(products.getId()).count(1L)).join();
+                            added.incrementAndGet();
+                        } catch (CompletionException e) {
+                            if (!(e.getCause() instanceof CustomBusinessException)
+                                    || !"InsufficientInventoryError".equals(((CustomBusinessException) e.getCause()).getCode())) {
+                                throw e;
+                            }
+                            rejected.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        clients.shutdown();
+        Assertions.assertTrue(clients.awaitTermination(2, TimeUnit.MINUTES));
+
+        Assertions.assertTrue(failures.isEmpty(), () -> "Failed adds: " + failures);
+        Assertions.assertTrue(added.get() <= INVENTORY, () -> added.get() + " units sold out of " + INVENTORY);
+        Assertions.assertEquals(THREADS * ADDS_PER_THREAD, added.get() + rejected.get());
+        /* Every unit is either in a cart or back in the inventory once the leases are returned. */
+        inventoryReservations.returnLeases();
+        Assertions.assertEquals(INVENTORY, added.get() + productRepository.findById(products.getId()).get().getInventory());
+    }
+
+    @Test
+    void testOrdersApiV1AddOrderIdPut_LeasedUnitsReturned() {
+        Products products = productRepository.save(Products.builder().name("Leased").description("Product Description")
+                .price("1.00").inventory(INVENTORY).build());
+        String orderId = ordersApiDelegate.ordersApiV1CreatePost(UUID.randomUUID().toString()).join().getBody().getOrderId();
+
+        ordersApiDelegate.ordersApiV1AddOrderIdPut(UUID.randomUUID().toString(), orderId,
+                new AddProductRequest().productId(products.getId()).count(2L)).join();
+        long leased = INVENTORY - 2 - productRepository.findById(products.getId()).get().getInventory();
+        Assertions.assertTrue(leased > 0);
+
+        inventoryReservations.returnLeases();
+
+        Assertions.assertEquals(INVENTORY - 2, productRepository.findById(products.getId()).get().getInventory());
+    }
+}
@@ -1,23 +1,44 @@
 package io.recruitment.assessment.api.service;
 
+import io.recruitment.assessment.api.cache.OrderSummaryCache;
+import io.recruitment.assessment.api.cache.ProductCatalogueCache;
+import io.recruitment.assessment.api.cart.JpaCartStore;
+import io.recruitment.assessment.api.config.ApiExecutorProperties;
+import io.recruitment.assessment.api.config.ApiTaskExecutor;
+import io.recruitment.assessment.api.config.OrderProperties;
+import io.recruitment.assessment.api.config.OrderSummaryCacheProperties;
+import io.recruitment.assessment.api.config.ProductCacheProperties;
 import io.recruitment.assessment.api.dvo.OrderDetails;
 import io.recruitment.assessment.api.dvo.ProductItem;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.inventory.InventoryReservations;
 import io.recruitment.assessment.api.repository.OrderRepository;
 import io.recruitment.assessment.api.repository.ProductRepository;
 import io.recruitment.assessment.api.validator.OrderBusinessValidator;
 import io.recruitment.assessment.gen.api.OrdersApiDelegate;
+import io.recruitment.assessment.gen.model.AddProductRequest;
+import io.recruitment.assessment.gen.model.AddProductsBatchRequest;
 import io.recruitment.assessment.gen.model.ShoppingCartData;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class OrderManagementServiceImplTest {
@@ -28,6 +49,8 @@ class OrderManagementServiceImplTest {
 
     private OrderBusinessValidator businessValidator;
 
+    private IdempotencyService idempotencyService;
+
     private OrdersApiDelegate ordersApiDelegate;
 
     @BeforeAll
@@ -35,12 +58,19 @@ class OrderManagementServiceImplTest {
         orderRepository = Mockito.mock(OrderRepository.class);
         productRepository = Mockito.mock(ProductRepository.class);
         businessValidator = Mockito.mock(OrderBusinessValidator.class);
-        ordersApiDelegate = new OrderManagementServiceImpl(orderRepository, productRepository, businessValidator);
+        idempotencyService = Mockito.mock(IdempotencyService.class);
+        Mockito.when(idempotencyService.execute(Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        ordersApiDelegate = new OrderManagementServiceImpl(
+                new ProductCatalogueCache(productRepository, new ProductCacheProperties()),
+                new OrderSummaryCache(new OrderSummaryCacheProperties()), businessValidator, idempotencyService,
+                new ApiTaskExecutor(new ApiExecutorProperties()), Mockito.mock(InventoryReservations.class),
+                new JpaCartStore(orderRepository, new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)),
+                        new OrderProperties()));
     }
 
     @Test
     void testOrdersApiV1CreatePost_Success() {
-        Mockito.doNothing().when(businessValidator).validateOrderCreateRequest(Mockito.anyString());
         Mockito.when(orderRepository.save(Mockito.any(OrderDetails.class)))
                 .thenReturn(OrderDetails.builder()
                         .id("orderId")
@@ -57,20 +87,126 @@ class OrderManagementServiceImplTest {
                 });
     }
 
+    @Test
+    void testOrdersApiV1AddOrderIdPut_ExistingProduct_CountIncremented() {
+        List<ProductItem> productItems = new ArrayList<>();
+        productItems.add(ProductItem.builder().productId(1234L).name("Product1").count(10L)
+                .price(new BigDecimal("100.00")).lineTotal(new BigDecimal("1000.00")).build());
+        productItems.add(ProductItem.builder().productId(2345L).name("Product2").count(10L)
+                .price(new BigDecimal("50.00")).lineTotal(new BigDecimal("500.00")).build());
+        Mockito.when(orderRepository.findForUpdateById("orderId"))
+                .thenReturn(Optional.of(OrderDetails.builder()
+                        .id("orderId")
+                        .createDate(Timestamp.valueOf(LocalDateTime.now()))
+                        .productItems(productItems)
+                        .totalPrice(new BigDecimal("1500.00"))
+                        .build()));
+        Mockito.when(productRepository.findById(2345L))
+                .thenReturn(Optional.of(new Products(2345L, "Product2", "Product Description", "50.00", 10L)));
+
+        ShoppingCartData data = ordersApiDelegate.ordersApiV1AddOrderIdPut("IdemPotencyKey", "orderId",
+                new AddProductRequest().productId(2345L).count(5L)).join().getBody();
+
+        Assertions.assertEquals(2, data.getItems().size());
+        Assertions.assertEquals(15L, data.getItems().get(1).getCount());
+        Assertions.assertEquals("750.00", data.getItems().get(1).getTotalItemPrice());
+        Assertions.assertEquals("1750.00", data.getTotalPrice());
+        Mockito.verify(productRepository, Mockito.times(1)).findById(2345L);
+        Mockito.verify(orderRepository, Mockito.never()).findWithItemsById(Mockito.anyString());
+    }
+
+    @Test
+    void testOrdersApiV1AddOrderIdPut_ConcurrentUpdate_Retried() {
+        Mockito.when(orderRepository.findForUpdateById("conflictOrderId"))
+                .thenThrow(new ObjectOptimisticLockingFailureException(OrderDetails.class, "conflictOrderId"))
+                .thenReturn(Optional.of(OrderDetails.builder()
+                        .id("conflictOrderId")
+                        .createDate(Timestamp.valueOf(LocalDateTime.now()))
+                        .productItems(new ArrayList<>())
+                        .build()));
+        Mockito.when(productRepository.findById(4567L))
+                .thenReturn(Optional.of(new Products(4567L, "Product4", "Product Description", "10.00", 10L)));
+
+        ShoppingCartData data = ordersApiDelegate.ordersApiV1AddOrderIdPut("IdemPotencyKey", "conflictOrderId",
+                new AddProductRequest().productId(4567L).count(2L)).join().getBody();
+
+        Assertions.assertEquals(1, data.getItems().size());
+        Assertions.assertEquals("20.00", data.getTotalPrice());
+    }
+
+    @Test
+    void testOrdersApiV1AddOrderIdPut_Failed_ConflictsExhaustRetries() {
+        Mockito.when(orderRepository.findForUpdateById("busyOrderId"))
+                .thenThrow(new ObjectOptimisticLockingFailureException(OrderDetails.class, "busyOrderId"));
+
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> ordersApiDelegate
+                .ordersApiV1AddOrderIdPut("IdemPotencyKey", "busyOrderId", new AddProductRequest().productId(4567L).count(2L)).join());
+
+        Assertions.assertEquals(HttpStatus.CONFLICT, ((CustomBusinessException) e.getCause()).getHttpStatus());
+        Mockito.verify(orderRepository, Mockito.times(3)).findForUpdateById("busyOrderId");
+    }
+
+    @Test
+    void testOrdersApiV1AddBatchOrderIdPut_Success() {
+        List<ProductItem> productItems = new ArrayList<>();
+        productItems.add(ProductItem.builder().productId(1234L).name("Product1").count(10L).price(new BigDecimal("100.00")).build());
+        Mockito.when(orderRepository.findForUpdateById("batchOrderId"))
+                .thenReturn(Optional.of(OrderDetails.builder()
+                        .id("batchOrderId")
+                        .createDate(Timestamp.valueOf(LocalDateTime.now()))
+                        .productItems(productItems)
+                        .build()));
+        Mockito.when(productRepository.findAllById(Mockito.anyIterable()))
+                .thenReturn(List.of(new Products(1234L, "Product1", "Product Description", "100.00", 10L),
+                        new Products(3456L, "Product3", "Product Description", "20.00", 10L)));
+
+        ShoppingCartData data = ordersApiDelegate.ordersApiV1AddBatchOrderIdPut("IdemPotencyKey", "batchOrderId",
+                new AddProductsBatchRequest().items(List.of(
+                        new AddProductRequest().productId(1234L).count(1L),
+                        new AddProductRequest().productId(3456L).count(2L),
+                        new AddProductRequest().productId(3456L).count(3L)))).join().getBody();
+
+        Assertions.assertEquals(2, data.getItems().size());
+        Assertions.assertEquals(11L, data.getItems().get(0).getCount());
+        Assertions.assertEquals(5L, data.getItems().get(1).getCount());
+        Assertions.assertEquals("1200.00", data.getTotalPrice());
+    }
+
+    @Test
+    void testOrdersApiV1AddBatchOrderIdPut_MissingCount_SingleProductAdded() {
+        Mockito.when(orderRepository.findForUpdateById("batchOrderId"))
+                .thenReturn(Optional.of(OrderDetails.builder()
+                        .id("batchOrderId")
+                        .createDate(Timestamp.valueOf(LocalDateTime.now()))
+                        .productItems(new ArrayList<>())
+                        .build()));
+        Mockito.when(productRepository.findAllById(Mockito.anyIterable()))
+                .thenReturn(List.of(new Products(3456L, "Product3", "Product Description", "20.00", 10L)));
+
+        ResponseEntity<ShoppingCartData> response = ordersApiDelegate.ordersApiV1AddBatchOrderIdPut("IdemPotencyKey", "batchOrderId",
+                new AddProductsBatchRequest().items(List.of(new AddProductRequest().productId(3456L).count(null)))).join();
+
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        Assertions.assertEquals(1L, response.getBody().getItems().get(0).getCount());
+        Assertions.assertEquals("20.00", response.getBody().getTotalPrice());
+    }
+
     @Test
     void testOrdersApiV1SummaryOrderIdGet_Success() {
         List<ProductItem> productItems = new ArrayList<>();
-        productItems.add(ProductItem.builder().productId(1234L).name("Product1").count(10L).price("100.00").build());
-        productItems.add(ProductItem.builder().productId(2345L).name("Product1").count(10L).price("100.00").build());
-        Mockito.doNothing().when(businessValidator).validateGetOrderSummaryRequest(Mockito.anyString());
-        Mockito.when(orderRepository.findById(Mockito.anyString()))
+        productItems.add(ProductItem.builder().productId(1234L).name("Product1").count(10L)
+                .price(new BigDecimal("100.00")).lineTotal(new BigDecimal("1000.00")).build());
+        productItems.add(ProductItem.builder().productId(2345L).name("Product1").count(10L)
+                .price(new BigDecimal("100.00")).lineTotal(new BigDecimal("1000.00")).build());
+        Mockito.doNothing().when(businessValidator).validateGetOrderSummaryRequest(Mockito.any());
+        Mockito.when(orderRepository.findWithItemsById(Mockito.anyString()))
                 .thenReturn(Optional.of(OrderDetails.builder()
                         .id("orderId")
                         .createDate(Timestamp.valueOf(LocalDateTime.now()))
                         .productItems(productItems)
                         .build()));
 
-        ordersApiDelegate.ordersApiV1SummaryOrderIdGet("orderId")
+        ordersApiDelegate.ordersApiV1SummaryOrderIdGet("orderId", null)
                 .thenApply(responseEntity -> {
                     ShoppingCartData data = responseEntity.getBody();
                     Assertions.assertEquals("orderId", data.getOrderId());
@@ -78,4 +214,28 @@ class OrderManagementServiceImplTest {
                     return responseEntity;
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testOrdersApiV1SummaryOrderIdGet_UnchangedOrder_NotModified() {
+        Mockito.when(orderRepository.findWithItemsById("cachedOrderId"))
+                .thenReturn(Optional.of(OrderDetails.builder()
+                        .id("cachedOrderId")
+                        .createDate(Timestamp.valueOf(LocalDateTime.now()))
+                        .productItems(new ArrayList<>())
+                        .totalPrice(BigDecimal.ZERO)
+                        .version(3L)
+                        .build()));
+
+        ResponseEntity<ShoppingCartData> first = ordersApiDelegate.ordersApiV1SummaryOrderIdGet("cachedOrderId", null).join();
+        ResponseEntity<ShoppingCartData> second = ordersApiDelegate.ordersApiV1SummaryOrderIdGet("cachedOrderId", "\"3\"").join();
+        ResponseEntity<ShoppingCartData> third = ordersApiDelegate.ordersApiV1SummaryOrderIdGet("cachedOrderId", "\"2\"").join();
+
+        Assertions.assertEquals(HttpStatus.OK, first.getStatusCode());
+        Assertions.assertEquals("\"3\"", first.getHeaders().getETag());
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        Assertions.assertNull(second.getBody());
+        Assertions.assertEquals(HttpStatus.OK, third.getStatusCode());
+        Assertions.assertEquals("0", third.getBody().getTotalPrice());
+        Mockito.verify(orderRepository, Mockito.times(1)).findWithItemsById("cachedOrderId");
+    }
+}
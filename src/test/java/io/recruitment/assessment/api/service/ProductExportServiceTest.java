@@ -0,0 +1,88 @@
+package io.recruitment.assessment.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.gen.model.ProductCatalogueResponseData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductExportServiceTest {
+
+    /* More than one fetch of the cursor. */
+    private static final int PRODUCTS = 2_500;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    public void init() {
+        List<Products> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(Products.builder().name("Export" + i).description("Product Description").price("10.00").build());
+        }
+        productRepository.saveAll(products);
+    }
+
+    @Test
+    void testExportProducts_EveryProductOnItsOwnLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = productExportService.exportProducts(out, false);
+
+        List<ProductCatalogueResponseData> lines = readLines(new ByteArrayInputStream(out.toByteArray()));
+        Assertions.assertEquals(productRepository.count(), exported);
+        Assertions.assertEquals(exported, lines.size());
+        for (int i = 1; i < lines.size(); i++) {
+            Assertions.assertTrue(lines.get(i - 1).getProductId() < lines.get(i).getProductId());
+        }
+        Assertions.assertTrue(lines.stream().anyMatch(data -> "Export0".equals(data.getName()) && "10.00".equals(data.getPrice())));
+    }
+
+    @Test
+    void testExportProducts_Gzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = productExportService.exportProducts(out, true);
+
+        List<ProductCatalogueResponseData> lines = readLines(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())));
+        Assertions.assertEquals(exported, lines.size());
+        Assertions.assertTrue(exported >= PRODUCTS);
+    }
+
+    private List<ProductCatalogueResponseData> readLines(InputStream in) throws IOException {
+        List<ProductCatalogueResponseData> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(objectMapper.readValue(line, ProductCatalogueResponseData.class));
+            }
+        }
+        return lines;
+    }
+}
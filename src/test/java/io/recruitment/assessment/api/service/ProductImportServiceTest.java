@@ -0,0 +1,87 @@
+package io.recruitment.assessment.api.service;
+
+import io.recruitment.assessment.api.exception.CustomBusinessException;
+import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.api.search.ProductSearchIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class ProductImportServiceTest {
+
+    /* More than one chunk. */
+    private static final int PRODUCTS = 2_500;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Test
+    void testImportProducts_Ndjson_InvalidRowsReported() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < PRODUCTS; i++) {
+            body.append("{\"name\":\"NdjsonImport").append(i).append("\",\"description\":\"Imported\",\"price\":\"10.00\"}\n");
+        }
+        body.append("{\"name\":\"NdjsonImportBadPrice\",\"description\":\"Imported\",\"price\":\"10\"}\n");
+        body.append("\n");
+        body.append("{\"name\":\"NdjsonImportBroken\"\n");
+        long before = productRepository.count();
+
+        ProductImportReport report = productImportService.importProducts(stream(body), ProductImportService.Format.NDJSON);
+
+        Assertions.assertEquals(PRODUCTS, report.getImported());
+        Assertions.assertEquals(2, report.getRejected());
+        Assertions.assertEquals(PRODUCTS + 1, report.getErrors().get(0).getRow());
+        Assertions.assertTrue(report.getErrors().get(0).getMessage().startsWith("Validation error : price"));
+        Assertions.assertEquals(PRODUCTS + 3, report.getErrors().get(1).getRow());
+        Assertions.assertTrue(report.getErrors().get(1).getMessage().startsWith("Malformed JSON"));
+        Assertions.assertEquals(before + PRODUCTS, productRepository.count());
+        Assertions.assertEquals(1, productSearchIndex.search("NdjsonImport2499", 0, 10, false).size());
+    }
+
+    @Test
+    void testImportProducts_Csv() {
+        String body = "name,description,price\n"
+                + "CsvImportDrill,\"Drill, 10cm\",12.50\n"
+                + "CsvImportHammer,,\n"
+                + "CsvImportSaw,Saw,7.00\n";
+
+        ProductImportReport report = productImportService.importProducts(stream(body), ProductImportService.Format.CSV);
+
+        Assertions.assertEquals(2, report.getImported());
+        Assertions.assertEquals(1, report.getRejected());
+        Assertions.assertEquals(2, report.getErrors().get(0).getRow());
+        Assertions.assertEquals("Drill, 10cm", productSearchIndex.search("CsvImportDrill", 0, 10, false).get(0).getDescription());
+    }
+
+    @Test
+    void testImportProducts_MalformedCsv_NothingImported() {
+        String body = "name,description,price\n"
+                + "CsvImportValid,Valid,1.00\n"
+                + "CsvImportBroken,\"Unbalanced quote,1.00\n";
+        long before = productRepository.count();
+
+        CustomBusinessException e = Assertions.assertThrows(CustomBusinessException.class,
+                () -> productImportService.importProducts(stream(body), ProductImportService.Format.CSV));
+
+        Assertions.assertEquals("DataValidationError", e.getCode());
+        Assertions.assertEquals(before, productRepository.count());
+    }
+
+    private static InputStream stream(CharSequence body) {
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,8 +1,14 @@
 package io.recruitment.assessment.api.service;
 
+import io.recruitment.assessment.api.cache.ProductCatalogueCache;
+import io.recruitment.assessment.api.config.ApiExecutorProperties;
+import io.recruitment.assessment.api.config.ApiTaskExecutor;
+import io.recruitment.assessment.api.config.ProductCacheProperties;
 import io.recruitment.assessment.api.dvo.News;
 import io.recruitment.assessment.api.dvo.Products;
+import io.recruitment.assessment.api.inventory.InventoryReservations;
 import io.recruitment.assessment.api.repository.ProductRepository;
+import io.recruitment.assessment.api.search.ProductSearchIndex;
 import io.recruitment.assessment.api.validator.ProductsBusinessValidator;
 import io.recruitment.assessment.gen.api.ProductsApiDelegate;
 import io.recruitment.assessment.gen.model.AddNewsRequest;
@@ -20,6 +26,7 @@ import org.springframework.data.domain.PageRequest;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class ProductsManagementServiceImplTest {
@@ -28,18 +35,30 @@ class ProductsManagementServiceImplTest {
 
     private ProductsBusinessValidator businessValidator;
 
+    private IdempotencyService idempotencyService;
+
+    private ProductSearchIndex productSearchIndex;
+
+    private InventoryReservations inventoryReservations;
+
     private ProductsApiDelegate productsApiDelegate;
 
     @BeforeAll
     public void init() {
         productRepository = Mockito.mock(ProductRepository.class);
         businessValidator = Mockito.mock(ProductsBusinessValidator.class);
-        productsApiDelegate = new ProductsManagementServiceImpl(productRepository, businessValidator);
+        idempotencyService = Mockito.mock(IdempotencyService.class);
+        productSearchIndex = Mockito.mock(ProductSearchIndex.class);
+        inventoryReservations = Mockito.mock(InventoryReservations.class);
+        Mockito.when(idempotencyService.execute(Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        productsApiDelegate = new ProductsManagementServiceImpl(productRepository, businessValidator,
+                new ProductCatalogueCache(productRepository, new ProductCacheProperties()), productSearchIndex, idempotencyService,
+                new ApiTaskExecutor(new ApiExecutorProperties()), inventoryReservations);
     }
 
     @Test
     void testProductsApiV1AddPost_Success() {
-        Mockito.doNothing().when(businessValidator).validateProductCreateRequest(Mockito.anyString());
         Mockito.when(productRepository.save(Mockito.any(Products.class)))
                 .thenReturn(Products.builder()
                         .id(1234L)
@@ -61,7 +80,7 @@ class ProductsManagementServiceImplTest {
 
     @Test
     void testProductsApiV1DeleteProductIdDelete_Success() {
-        Mockito.doNothing().when(businessValidator).validateProductDeleteRequest(Mockito.anyString(), Mockito.anyLong());
+        Mockito.doNothing().when(businessValidator).validateProductDeleteRequest(Mockito.anyLong());
         Mockito.when(productRepository.findById(Mockito.any(Long.class)))
                 .thenReturn(Optional.of(Products.builder()
                         .id(1234L)
@@ -85,10 +104,10 @@ class ProductsManagementServiceImplTest {
     void productsApiV1ListGet_Success_WithSearchParam() {
         List<Products> newsList = new ArrayList<>();
         newsList.add(Products.builder().id(1234L).name("Product Name").description("Product Description").price("100.00").build());
-        Mockito.doNothing().when(businessValidator).validateGetProductLiseRequest(Mockito.anyLong(), Mockito.anyLong());
+        Mockito.doNothing().when(businessValidator).validateGetProductLiseRequest(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(), Mockito.any());
         Mockito.when(productRepository.findByNameContaining(Mockito.anyString(), Mockito.any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(newsList));
-        productsApiDelegate.productsApiV1ListGet("searchParam",1L, 2L)
+        productsApiDelegate.productsApiV1ListGet("searchParam",1L, 2L, null, null)
                 .thenApply(listResponseEntity -> {
                     List<ProductCatalogueResponseData> dataList = listResponseEntity.getBody();
                     Assertions.assertEquals(1, dataList.size());
@@ -103,11 +122,11 @@ class ProductsManagementServiceImplTest {
         newsList.add(Products.builder().id(1234L).name("Product Name").description("Product Description").price("100.00").build());
         newsList.add(Products.builder().id(1234L).name("Product Name").description("Product Description").price("100.00").build());
         newsList.add(Products.builder().id(1234L).name("Product Name").description("Product Description").price("100.00").build());
-        Mockito.doNothing().when(businessValidator).validateGetProductLiseRequest(Mockito.anyLong(), Mockito.anyLong());
-        Mockito.when(productRepository.findAll(Mockito.any(PageRequest.class)))
+        Mockito.doNothing().when(businessValidator).validateGetProductLiseRequest(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(), Mockito.any());
+        Mockito.when(productRepository.findAllBy(Mockito.any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(newsList));
 
-        productsApiDelegate.productsApiV1ListGet("",1L, 2L)
+        productsApiDelegate.productsApiV1ListGet("",1L, 2L, null, null)
                 .thenApply(listResponseEntity -> {
                     List<ProductCatalogueResponseData> dataList = listResponseEntity.getBody();
                     Assertions.assertEquals(3, dataList.size());
@@ -118,7 +137,7 @@ class ProductsManagementServiceImplTest {
 
     @Test
     void testProductsApiV1UpdateProductIdPut_Success() {
-        Mockito.doNothing().when(businessValidator).validateProductUpdateRequest(Mockito.anyString(), Mockito.anyLong());
+        Mockito.doNothing().when(businessValidator).validateProductUpdateRequest(Mockito.anyLong());
         Mockito.when(productRepository.save(Mockito.any(Products.class)))
                 .thenReturn(Products.builder()
                         .id(1234L)
@@ -136,4 +155,26 @@ class ProductsManagementServiceImplTest {
                     return productCatalogueResponseDataResponseEntity;
                 });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testProductsApiV1UpdateProductIdPut_WithoutInventory_KeepsStoredInventory() {
+        Mockito.doNothing().when(businessValidator).validateProductUpdateRequest(Mockito.anyLong());
+        Mockito.when(productRepository.updateDetails(4321L, "Product Name", "Product Description", "100.00")).thenReturn(1);
+        Mockito.when(productRepository.findById(4321L))
+                .thenReturn(Optional.of(Products.builder()
+                        .id(4321L)
+                        .name("Product Name")
+                        .description("Product Description")
+                        .price("100.00")
+                        .inventory(25L).build()));
+
+        ProductCatalogueResponseData productCatalogueResponseData = productsApiDelegate.productsApiV1UpdateProductIdPut("IdemPotencyKey", 4321L,
+                new CreateOrUpdateProductRequest().name("Product Name").description("Product Description").price("100.00"))
+                .join().getBody();
+
+        Assertions.assertEquals(4321L, productCatalogueResponseData.getProductId());
+        Mockito.verify(productRepository, Mockito.never()).save(Mockito.argThat(products -> products.getId() != null && products.getId() == 4321L));
+        Mockito.verify(inventoryReservations, Mockito.never()).productUpdated(4321L);
+        Mockito.verify(productSearchIndex).index(Mockito.argThat(products -> products.getInventory() == 25L));
+    }
+}